@@ -16,29 +16,34 @@
 
 package org.qubership.integration.platform.sessions.controller;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.qubership.integration.platform.sessions.dto.ExportFormat;
+import org.qubership.integration.platform.sessions.dto.filter.FilterRequestAndSearchDTO;
 import org.qubership.integration.platform.sessions.service.ExportService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RestController
 @RequestMapping("/v1/sessions/export")
 @Tag(name = "export-controller", description = "Export Controller")
 public class ExportController {
+    private static final String GZIP_ENCODING = "gzip";
+
     private final ExportService exportService;
 
     @Autowired
@@ -46,22 +51,64 @@ public class ExportController {
         this.exportService = exportService;
     }
 
-    @Operation(description = "Export sessions by given sessionId's as a file")
+    @Operation(description = "Export sessions by given sessionId's as a file, JSON by default or Smile if accepted")
     @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST})
-    public ResponseEntity<String> exportSessions(@RequestBody @NotEmpty @Valid @Parameter(description = "List of session Ids to export") List<String> sessionsIds) {
-        try {
-            return asResponse(exportService.exportSessions(sessionsIds));
-        } catch (JsonProcessingException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
-        }
+    public ResponseEntity<StreamingResponseBody> exportSessions(
+        @RequestBody @NotEmpty @Valid @Parameter(description = "List of session Ids to export") List<String> sessionsIds,
+        @RequestParam(required = false, defaultValue = "false") @Parameter(description = "Whether to pretty print the exported JSON") boolean pretty,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        return asResponse(exportService.exportSessions(sessionsIds, format, pretty), format,
+                StringUtils.containsIgnoreCase(acceptEncoding, GZIP_ENCODING));
+    }
+
+    @Operation(description = "Export all sessions matching the filter as a file")
+    @PostMapping("/filter")
+    public ResponseEntity<StreamingResponseBody> exportSessionsByFilter(
+        @RequestBody @Parameter(description = "Additional filters request object") FilterRequestAndSearchDTO filterRequest,
+        @RequestParam(required = false, defaultValue = "false") @Parameter(description = "Whether to pretty print the exported JSON") boolean pretty,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return exportSessionsByFilterAndChainId(null, filterRequest, pretty, accept, acceptEncoding);
+    }
+
+    @Operation(description = "Export all sessions of the chain matching the filter as a file")
+    @PostMapping("/chains/{chainId}/filter")
+    public ResponseEntity<StreamingResponseBody> exportSessionsByFilterAndChainId(
+        @PathVariable @Nullable @Parameter(description = "Only sessions executed on chain with specified id will be exported") String chainId,
+        @RequestBody @Parameter(description = "Additional filters request object") FilterRequestAndSearchDTO filterRequest,
+        @RequestParam(required = false, defaultValue = "false") @Parameter(description = "Whether to pretty print the exported JSON") boolean pretty,
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        log.debug("Request to export sessions by filter for chain {}", chainId);
+        ExportFormat format = ExportFormat.fromAccept(accept);
+        return asResponse(exportService.exportSessionsByFilter(chainId, filterRequest, format, pretty), format,
+                StringUtils.containsIgnoreCase(acceptEncoding, GZIP_ENCODING));
     }
 
-    private ResponseEntity<String> asResponse(Pair<String, String> export) {
+    private ResponseEntity<StreamingResponseBody> asResponse(Pair<String, StreamingResponseBody> export, ExportFormat format, boolean gzip) {
         HttpHeaders header = new HttpHeaders();
         header.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + export.getKey());
         header.add(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.CONTENT_DISPOSITION);
+        header.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        header.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        StreamingResponseBody body = export.getValue();
+        if (gzip) {
+            header.add(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+            StreamingResponseBody plainBody = body;
+            body = outputStream -> {
+                try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+                    plainBody.writeTo(gzipStream);
+                }
+            };
+        }
         return ResponseEntity.ok()
                 .headers(header)
-                .body(export.getValue());
+                .contentType(format.getMediaType())
+                .body(body);
     }
 }
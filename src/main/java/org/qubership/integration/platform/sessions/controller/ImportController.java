@@ -21,10 +21,16 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
+import org.qubership.integration.platform.sessions.dto.ImportConflictMode;
+import org.qubership.integration.platform.sessions.dto.ImportJobResponse;
 import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.service.ImportJobService;
 import org.qubership.integration.platform.sessions.service.ImportService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -40,16 +46,41 @@ import java.util.List;
 public class ImportController {
 
     private final ImportService importService;
+    private final ImportJobService importJobService;
 
     @Autowired
-    public ImportController(ImportService importService) {
+    public ImportController(ImportService importService, ImportJobService importJobService) {
         this.importService = importService;
+        this.importJobService = importJobService;
     }
 
-    @Operation(description = "Import session(s) from file")
+    @Operation(description = "Import session(s) from file. In SKIP mode sessions duplicates are skipped and reported "
+            + "with 409 once the other sessions are imported")
     @PostMapping()
-    public ResponseEntity<List<Session>> importSessions(@RequestParam @Parameter(description = "List of files to import") MultipartFile[] files) {
+    public ResponseEntity<List<Session>> importSessions(
+        @RequestParam @Parameter(description = "List of files to import") MultipartFile[] files,
+        @RequestParam(required = false, defaultValue = "CHECK") @Parameter(description = "How sessions already present in storage are handled") ImportConflictMode conflicts
+    ) {
         log.debug("Request to import sessions");
-        return ResponseEntity.ok(importService.importSessions(files));
+        return ResponseEntity.ok(importService.importSessions(files, conflicts));
+    }
+
+    @Operation(description = "Start import of session(s) from file in background. "
+            + "The job runs on the replica which accepted it and is not resumed if that replica restarts. "
+            + "Responds with 503 and Retry-After when the job queue is full")
+    @PostMapping("/jobs")
+    public ResponseEntity<ImportJobResponse> submitImportJob(
+        @RequestParam @Parameter(description = "List of files to import") MultipartFile[] files,
+        @RequestParam(required = false, defaultValue = "CHECK") @Parameter(description = "How sessions already present in storage are handled") ImportConflictMode conflicts
+    ) {
+        log.debug("Request to start import job");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.submit(files, conflicts));
+    }
+
+    @Operation(description = "Get progress of the import job. Jobs are known only to the replica which accepted them "
+            + "and are kept for the configured retention after they finish")
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable @Parameter(description = "Id of the import job") String jobId) {
+        return ResponseEntity.of(importJobService.getJob(jobId));
     }
 }
@@ -23,19 +23,27 @@ import io.swagger.v3.oas.annotations.extensions.ExtensionProperty;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
+import org.qubership.integration.platform.sessions.dto.DeleteChainsResponse;
+import org.qubership.integration.platform.sessions.dto.DeleteTaskResponse;
 import org.qubership.integration.platform.sessions.dto.Session;
 import org.qubership.integration.platform.sessions.dto.SessionElement;
+import org.qubership.integration.platform.sessions.dto.SessionFacetsResponse;
 import org.qubership.integration.platform.sessions.dto.SessionSearchResponse;
 import org.qubership.integration.platform.sessions.dto.filter.FilterRequestAndSearchDTO;
 import org.qubership.integration.platform.sessions.exception.SessionsNotFoundException;
 import org.qubership.integration.platform.sessions.service.CatalogInternalService;
+import org.qubership.integration.platform.sessions.service.DeleteTaskService;
 import org.qubership.integration.platform.sessions.service.SessionService;
+import org.qubership.integration.platform.sessions.service.SessionStreamingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -49,12 +57,18 @@ public class SessionController {
 
     private final SessionService sessionService;
     private final CatalogInternalService catalogInternalService;
+    private final SessionStreamingService sessionStreamingService;
+    private final DeleteTaskService deleteTaskService;
 
     @Autowired
     public SessionController(SessionService sessionService,
-        CatalogInternalService catalogInternalService) {
+        CatalogInternalService catalogInternalService,
+        SessionStreamingService sessionStreamingService,
+        DeleteTaskService deleteTaskService) {
         this.sessionService = sessionService;
         this.catalogInternalService = catalogInternalService;
+        this.sessionStreamingService = sessionStreamingService;
+        this.deleteTaskService = deleteTaskService;
     }
 
     @Operation(extensions = @Extension(properties = {@ExtensionProperty(name = "x-api-kind", value = "bwc")}),
@@ -86,16 +100,39 @@ public class SessionController {
         return ResponseEntity.ok(session);
     }
 
+    @GetMapping(value = "/{sessionId}", params = "stream=true")
+    @Operation(description = "Get session with all elements (steps) by session id, streaming elements without building the whole session in memory")
+    public ResponseEntity<StreamingResponseBody> streamById(@PathVariable @Parameter(description = "Session id") String sessionId,
+                                                            @RequestParam @Parameter(description = "Stream session elements page by page") boolean stream) {
+        if (log.isDebugEnabled()) {
+            log.debug("Request to stream session by id {}", sessionId);
+        }
+        SessionStreamingService.SessionStructure structure = sessionStreamingService.findStructure(sessionId);
+        if (structure == null) {
+            throw new SessionsNotFoundException("Can't find session " + sessionId);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> sessionStreamingService.writeSession(structure, true, outputStream));
+    }
+
     @RequestMapping(method=RequestMethod.HEAD, value="/{sessionId}")
     @Operation(description = "Find session by id if it exists", extensions = @Extension(properties = {@ExtensionProperty(name = "x-api-kind", value = "bwc")}))
-    public ResponseEntity<Session> findExistingSession(@PathVariable String sessionId) {
-        Session session = sessionService.findById(sessionId, SessionService.SESSION_ID_KEY, true, false);
-
-        if (session == null) {
+    public ResponseEntity<Void> findExistingSession(@PathVariable String sessionId) {
+        if (!sessionService.existsById(sessionId)) {
             throw new SessionsNotFoundException("Can't find session " + sessionId);
         }
-        
-        return ResponseEntity.ok(session);
+
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/exists")
+    @Operation(description = "Check which of specified sessions exist")
+    public ResponseEntity<Map<String, Boolean>> findExistingSessions(@RequestBody @Parameter(description = "List of session ids to check") List<String> sessionIds) {
+        Set<String> existingIds = sessionService.findExistingIds(sessionIds);
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        sessionIds.forEach(sessionId -> result.put(sessionId, existingIds.contains(sessionId)));
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping
@@ -104,10 +141,11 @@ public class SessionController {
         @RequestParam(required = false, defaultValue = "0") @Parameter(description = "Which session number should we start from") int offset,
         @RequestParam(required = false, defaultValue = "20") @Parameter(description = "Amount of sessions received at a time") int count,
         @RequestParam(required = false, defaultValue = "sessionStarted") @Parameter(description = "Name of column we should sort response by") String sortColumn,
+        @RequestParam(required = false) @Parameter(description = "Cursor from the previous page response, used instead of offset") String cursor,
         @RequestBody @Parameter(description = "Additional filters request object") FilterRequestAndSearchDTO filterRequest
     ) {
         ResponseEntity<SessionSearchResponse> response = findByFilter(null, offset, count,
-            sortColumn, filterRequest);
+            sortColumn, cursor, filterRequest);
         SessionSearchResponse body = response.getBody();
 
         if (body != null) {
@@ -116,9 +154,13 @@ public class SessionController {
                     .map(Session::getChainId).collect(Collectors.toSet());
 
                 Map<String, String> chainsNames = catalogInternalService.getChainsNames(chainIds);
-                body.getSessions()
-                    .forEach(session ->
-                        session.setChainName(chainsNames.getOrDefault(session.getChainId(), session.getChainName())));
+                // Sessions may be shared with the query cache, so names are set on copies
+                List<Session> sessions = body.getSessions().stream()
+                    .map(session -> session.toBuilder()
+                        .chainName(chainsNames.getOrDefault(session.getChainId(), session.getChainName()))
+                        .build())
+                    .toList();
+                response = ResponseEntity.ok(new SessionSearchResponse(body.getOffset(), sessions, body.getCursor()));
             } catch (Exception e) {
                 log.warn("Failed to receive actual chains names for sessions", e);
             }
@@ -134,6 +176,7 @@ public class SessionController {
         @RequestParam(required = false, defaultValue = "0") @Parameter(description = "Which session number should we start from") int offset,
         @RequestParam(required = false, defaultValue = "20") @Parameter(description = "Amount of sessions received at a time") int count,
         @RequestParam(required = false, defaultValue = "sessionStarted") @Parameter(description = "Name of column we should sort response by") String sortColumn,
+        @RequestParam(required = false) @Parameter(description = "Cursor from the previous page response, used instead of offset") String cursor,
         @RequestBody @Parameter(description = "Additional filters request object") FilterRequestAndSearchDTO filterRequest
     ) {
         if (log.isDebugEnabled()) {
@@ -145,7 +188,29 @@ public class SessionController {
         }
 
         return ResponseEntity.ok(
-                sessionService.getSessions(chainId, offset, count, sortColumn, filterRequest));
+                sessionService.getSessions(chainId, offset, count, sortColumn, cursor, filterRequest));
+    }
+
+    @PostMapping("/facets")
+    @Operation(description = "Get sessions count by values of filter columns and by start time")
+    public ResponseEntity<SessionFacetsResponse> getFacets(
+        @RequestParam(required = false, defaultValue = "1h") @Parameter(description = "Start time histogram interval, e.g. 1m, 1h, 1d") String interval,
+        @RequestBody @Parameter(description = "Additional filters request object") FilterRequestAndSearchDTO filterRequest
+    ) {
+        return getFacetsByChainId(null, interval, filterRequest);
+    }
+
+    @PostMapping("/chains/{chainId}/facets")
+    @Operation(description = "Get sessions count for specified chain by values of filter columns and by start time")
+    public ResponseEntity<SessionFacetsResponse> getFacetsByChainId(
+        @PathVariable() @Nullable @Parameter(description = "Only sessions executed on chain with specified id will be counted") String chainId,
+        @RequestParam(required = false, defaultValue = "1h") @Parameter(description = "Start time histogram interval, e.g. 1m, 1h, 1d") String interval,
+        @RequestBody @Parameter(description = "Additional filters request object") FilterRequestAndSearchDTO filterRequest
+    ) {
+        if (log.isDebugEnabled()) {
+            log.debug("Request to count sessions facets for chain id: {}", chainId);
+        }
+        return ResponseEntity.ok(sessionService.getFacets(chainId, interval, filterRequest));
     }
 
     @GetMapping("/{sessionId}/{elementId}")
@@ -163,6 +228,16 @@ public class SessionController {
         return ResponseEntity.ok(element);
     }
 
+    @PostMapping("/{sessionId}/elements")
+    @Operation(description = "Get elements (steps) with payload (body) for several specified elements (steps) at once")
+    public ResponseEntity<List<SessionElement>> getElementsPayloadByIds(@PathVariable @Parameter(description = "Session id") String sessionId,
+                                                                        @RequestBody @Parameter(description = "List of element (step) ids within specified session") List<String> elementIds) {
+        if (log.isDebugEnabled()) {
+            log.debug("Request to find {} Session Elements payloads from session {}", elementIds.size(), sessionId);
+        }
+        return ResponseEntity.ok(sessionService.getElementsByIds(sessionId, elementIds));
+    }
+
     @DeleteMapping("/{sessionId}")
     @Operation(description = "Delete specified session")
     public ResponseEntity<Void> deleteById(@PathVariable @Parameter(description = "Session id") String sessionId) {
@@ -173,25 +248,64 @@ public class SessionController {
 
     @Operation(description = "Delete all sessions for specified chain")
     @DeleteMapping("/chains/{chainId}")
-    public ResponseEntity<Void> deleteAllByChainId(@PathVariable @Parameter(description = "Chain id") String chainId) {
+    public ResponseEntity<DeleteTaskResponse> deleteAllByChainId(
+        @PathVariable @Parameter(description = "Chain id") String chainId,
+        @RequestParam(required = false, defaultValue = "false") @Parameter(description = "Start delete in background and return its task") boolean async
+    ) {
         log.info("Request to delete all sessions by chain id: {}", chainId);
+        if (async) {
+            String taskId = sessionService.deleteByChainIdAsync(chainId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(DeleteTaskResponse.builder().taskId(taskId).build());
+        }
         sessionService.deleteByChainId(chainId);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
-    @Operation(description = "Delete all sessions for specified chains")
+    @Operation(description = "Delete all sessions for specified chains. Returns sessions matched per chain, estimated before the delete")
     @DeleteMapping("/chains")
-    public ResponseEntity<Void> deleteAllByChainIds(@RequestParam @Parameter(description = "List of chain ids separated by comma") List<String> chainIds) {
+    public ResponseEntity<DeleteChainsResponse> deleteAllByChainIds(
+        @RequestParam @Parameter(description = "List of chain ids separated by comma") List<String> chainIds,
+        @RequestParam(required = false, defaultValue = "false") @Parameter(description = "Start delete in background and return its tasks") boolean async
+    ) {
         log.info("Request to delete all sessions by chains ids: {}", chainIds);
-        sessionService.deleteAllByChainIds(chainIds);
-        return new ResponseEntity<>(HttpStatus.OK);
+        DeleteChainsResponse response = sessionService.deleteAllByChainIds(chainIds, async);
+        return ResponseEntity.status(async ? HttpStatus.ACCEPTED : HttpStatus.OK).body(response);
     }
 
     @Operation(description = "Delete all sessions from all chains")
     @DeleteMapping("")
-    public ResponseEntity<Void> deleteAllSessions() {
+    public ResponseEntity<DeleteTaskResponse> deleteAllSessions(
+        @RequestParam(required = false, defaultValue = "false") @Parameter(description = "Start delete in background and return its task") boolean async
+    ) {
         log.info("Request to delete all sessions");
+        if (async) {
+            String taskId = sessionService.deleteAllSessionsAsync();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(DeleteTaskResponse.builder().taskId(taskId).build());
+        }
         sessionService.deleteAllSessions();
         return new ResponseEntity<>(HttpStatus.OK);
     }
+
+    @Operation(description = "Get progress of the background sessions delete")
+    @GetMapping("/delete-tasks/{taskId}")
+    public ResponseEntity<DeleteTaskResponse> getDeleteTask(@PathVariable @Parameter(description = "Id of the delete task") String taskId) {
+        return ResponseEntity.of(deleteTaskService.getTask(taskId));
+    }
+
+    @Operation(description = "Change throttle of the background sessions delete")
+    @PostMapping("/delete-tasks/{taskId}/rethrottle")
+    public ResponseEntity<Void> rethrottleDeleteTask(
+        @PathVariable @Parameter(description = "Id of the delete task") String taskId,
+        @RequestParam @Parameter(description = "Deleted session elements per second, -1 to disable throttling") long requestsPerSecond
+    ) {
+        log.info("Request to rethrottle delete task {} to {} requests per second", taskId, requestsPerSecond);
+        return new ResponseEntity<>(deleteTaskService.rethrottle(taskId, requestsPerSecond) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
+
+    @Operation(description = "Cancel the background sessions delete")
+    @PostMapping("/delete-tasks/{taskId}/cancel")
+    public ResponseEntity<Void> cancelDeleteTask(@PathVariable @Parameter(description = "Id of the delete task") String taskId) {
+        log.info("Request to cancel delete task {}", taskId);
+        return new ResponseEntity<>(deleteTaskService.cancel(taskId) ? HttpStatus.OK : HttpStatus.NOT_FOUND);
+    }
 }
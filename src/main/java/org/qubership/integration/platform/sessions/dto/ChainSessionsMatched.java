@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Sessions of the chain matched by the delete. Counted before the delete from the session elements, "
+        + "so elements written meanwhile are not included, and the sessions count is approximate")
+public class ChainSessionsMatched {
+
+    @Schema(description = "Chain id")
+    private String chainId;
+
+    @Schema(description = "Approximate number of matched sessions")
+    private long matchedSessions;
+
+    @Schema(description = "Number of matched session elements (steps)")
+    private long matchedElements;
+}
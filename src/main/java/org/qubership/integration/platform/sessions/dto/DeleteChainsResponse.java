@@ -0,0 +1,36 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Result of the sessions delete for several chains")
+public class DeleteChainsResponse {
+
+    @Schema(description = "Sessions matched by the delete per chain, counted before the delete, "
+            + "chains without sessions are reported with zero counts")
+    private List<ChainSessionsMatched> chains;
+
+    @Schema(description = "Ids of the delete tasks if the delete runs in background")
+    private List<String> taskIds;
+}
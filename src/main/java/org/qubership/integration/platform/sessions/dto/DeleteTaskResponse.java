@@ -0,0 +1,53 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of the asynchronous sessions delete")
+public class DeleteTaskResponse {
+
+    @Schema(description = "Id of the OpenSearch delete by query task")
+    private String taskId;
+
+    @Schema(description = "Whether the task is finished")
+    private boolean completed;
+
+    @Schema(description = "Number of session elements (steps) matching the delete query")
+    private Long total;
+
+    @Schema(description = "Number of deleted session elements (steps)")
+    private Long deleted;
+
+    @Schema(description = "Number of session elements changed while being deleted and skipped")
+    private Long versionConflicts;
+
+    @Schema(description = "Current throttle of the task in documents per second, -1 if not throttled")
+    private Float requestsPerSecond;
+
+    @Schema(description = "Error message if the task failed")
+    private String error;
+
+}
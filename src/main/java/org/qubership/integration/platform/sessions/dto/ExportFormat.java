@@ -0,0 +1,52 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+/**
+ * Encoding of exported sessions. Smile is a binary JSON, it keeps the same structure
+ * while avoiding repeated field names and escaping of payloads.
+ */
+@Getter
+public enum ExportFormat {
+    JSON(MediaType.APPLICATION_JSON, ".json"),
+    SMILE(new MediaType("application", "x-jackson-smile"), ".smile");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    /**
+     * Picks Smile only if the client accepts it explicitly, JSON stays the default for any other Accept header.
+     */
+    public static ExportFormat fromAccept(String accept) {
+        if (accept != null) {
+            for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+                if (SMILE.mediaType.equalsTypeAndSubtype(mediaType)) {
+                    return SMILE;
+                }
+            }
+        }
+        return JSON;
+    }
+}
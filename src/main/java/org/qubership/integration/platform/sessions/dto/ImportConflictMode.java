@@ -0,0 +1,28 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "How sessions already present in storage are handled on import. "
+        + "CHECK rejects a file with duplicates before writing, SKIP imports all sessions except duplicates and reports the skipped ones, "
+        + "ROLLBACK removes everything written from a file with duplicates")
+public enum ImportConflictMode {
+    CHECK,
+    SKIP,
+    ROLLBACK
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progress of the asynchronous import")
+public class ImportJobResponse {
+
+    @Schema(description = "Id of the import job")
+    private String id;
+
+    @Schema(description = "State of the import job")
+    private ImportJobStatus status;
+
+    @Schema(description = "Time the job was accepted")
+    private Instant createdAt;
+
+    @Schema(description = "Time the job was started")
+    private Instant startedAt;
+
+    @Schema(description = "Time the job was finished")
+    private Instant finishedAt;
+
+    @Schema(description = "Number of files in the job")
+    private int filesCount;
+
+    @Schema(description = "Total size of the files in bytes")
+    private long totalBytes;
+
+    @Schema(description = "Size of the processed part of the files in bytes")
+    private long bytesProcessed;
+
+    @Schema(description = "Number of imported sessions")
+    private long sessionsIndexed;
+
+    @Schema(description = "Number of imported session elements (steps)")
+    private long elementsIndexed;
+
+    @Schema(description = "Average import rate in session elements per second")
+    private double elementsPerSecond;
+
+    @Schema(description = "Average import rate in bytes per second")
+    private double bytesPerSecond;
+
+    @Schema(description = "Ids of sessions not imported in SKIP mode because they already exist")
+    private List<String> skippedSessionIds;
+
+    @Schema(description = "Error message if the job failed")
+    private String error;
+
+}
@@ -28,7 +28,7 @@ import java.util.List;
 @Slf4j
 @Getter
 @Setter
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 @NoArgsConstructor
 @Schema(description = "Single session object")
 public class Session extends AbstractRunnableElement {
@@ -29,7 +29,7 @@ import org.qubership.integration.platform.sessions.dto.opensearch.ExceptionInfoE
 
 @Getter
 @Setter
-@SuperBuilder
+@SuperBuilder(toBuilder = true)
 @NoArgsConstructor
 @Schema(description = "Single element(step) from the session")
 public class SessionElement extends AbstractRunnableElement {
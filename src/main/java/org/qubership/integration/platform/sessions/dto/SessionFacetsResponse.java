@@ -0,0 +1,37 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.qubership.integration.platform.sessions.dto.filter.FilterFeature;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@Schema(description = "Response object for sessions filters facets")
+public class SessionFacetsResponse {
+
+    @Schema(description = "Most frequent values with sessions count for each filter column")
+    private Map<FilterFeature, List<FacetBucket>> facets;
+
+    @Schema(description = "Sessions count by start time intervals")
+    private List<FacetBucket> startTimeHistogram;
+}
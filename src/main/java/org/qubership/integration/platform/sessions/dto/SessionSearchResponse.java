@@ -33,4 +33,7 @@ public class SessionSearchResponse {
     @Schema(description = "List of sessions")
     private List<Session> sessions;
 
+    @Schema(description = "Opaque cursor to request the next page with, absent if there are no more sessions")
+    private String cursor;
+
 }
@@ -17,9 +17,13 @@
 package org.qubership.integration.platform.sessions.dto.filter;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 @Getter
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(description = "Single request to filter output response")
 public class FilterRequest {
 
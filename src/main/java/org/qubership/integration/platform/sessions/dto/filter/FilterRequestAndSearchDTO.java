@@ -17,11 +17,15 @@
 package org.qubership.integration.platform.sessions.dto.filter;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 import java.util.List;
 
 @Getter
+@NoArgsConstructor
+@AllArgsConstructor
 @Schema(description = "Additional filters request object")
 public class FilterRequestAndSearchDTO {
     @Schema(description = "List of filter requests")
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.dto.opensearch;
+
+import org.qubership.integration.platform.sessions.dto.ExecutionStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Session summary document, one per session, stored in the sessions index
+ * and built from the session elements.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummaryElastic {
+
+    private String sessionId;
+
+    private String externalSessionId;
+
+    private String sessionStarted;
+
+    private String sessionFinished;
+
+    private long sessionDuration;
+
+    private ExecutionStatus sessionExecutionStatus;
+
+    private boolean importedSession;
+
+    private String chainId;
+
+    private String chainName;
+
+    private String domain;
+
+    private String engineAddress;
+
+    private String loggingLevel;
+
+    private String snapshotName;
+
+    private String correlationId;
+
+    private String parentSessionId;
+
+    private long elementsCount;
+
+    private long errorsCount;
+}
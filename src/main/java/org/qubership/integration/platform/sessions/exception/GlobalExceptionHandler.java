@@ -18,6 +18,7 @@ package org.qubership.integration.platform.sessions.exception;
 
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.qubership.integration.platform.sessions.dto.ExceptionDTO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -55,6 +56,13 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(getExceptionDTO(exception));
     }
 
+    @ExceptionHandler(ImportJobsLimitException.class)
+    public ResponseEntity<ExceptionDTO> importJobsLimitExceptionHandler(ImportJobsLimitException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfter().toSeconds()))
+                .body(getExceptionDTO(exception));
+    }
+
     private ExceptionDTO getExceptionDTO(Exception exception) {
         String message = exception.getMessage();
         String stacktrace = NO_STACKTRACE_AVAILABLE_MESSAGE;
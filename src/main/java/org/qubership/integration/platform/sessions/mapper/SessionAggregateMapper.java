@@ -19,6 +19,7 @@ package org.qubership.integration.platform.sessions.mapper;
 import org.mapstruct.*;
 import org.qubership.integration.platform.sessions.dto.Session;
 import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
 import org.springframework.util.CollectionUtils;
 
 import java.util.List;
@@ -41,6 +42,17 @@ public abstract class SessionAggregateMapper {
     @Mapping(target = "parentSessionId", source = "element.parentSessionId")
     protected abstract Session toPreview(SessionElementElastic element, @MappingTarget Session session);
 
+    public abstract List<Session> toPreviewFromSummaries(List<SessionSummaryElastic> summaries);
+
+    @Mapping(target = "id", source = "summary.sessionId")
+    @Mapping(target = "externalSessionCipId", source = "summary.externalSessionId")
+    @Mapping(target = "started", source = "summary.sessionStarted")
+    @Mapping(target = "finished", source = "summary.sessionFinished")
+    @Mapping(target = "duration", source = "summary.sessionDuration")
+    @Mapping(target = "executionStatus", source = "summary.sessionExecutionStatus")
+    @Mapping(target = "sessionElements", ignore = true)
+    public abstract Session toPreview(SessionSummaryElastic summary);
+
     @Mapping(target = "sessionElements", source = "elements")
     protected abstract Session toSession(SessionElementElastic element, List<SessionElementElastic> elements);
 
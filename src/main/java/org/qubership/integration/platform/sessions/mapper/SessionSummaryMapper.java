@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.mapper;
+
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
+
+@Mapper(componentModel = "spring", builder = @Builder(disableBuilder = true))
+public abstract class SessionSummaryMapper {
+
+    @Mapping(target = "elementsCount", source = "elementsCount")
+    @Mapping(target = "errorsCount", source = "errorsCount")
+    public abstract SessionSummaryElastic toSummary(SessionElementElastic element, long elementsCount, long errorsCount);
+
+    @Mapping(target = "sessionId", source = "session.id")
+    @Mapping(target = "externalSessionId", source = "session.externalSessionCipId")
+    @Mapping(target = "sessionStarted", source = "session.started")
+    @Mapping(target = "sessionFinished", source = "session.finished")
+    @Mapping(target = "sessionDuration", source = "session.duration")
+    @Mapping(target = "sessionExecutionStatus", source = "session.executionStatus")
+    @Mapping(target = "elementsCount", source = "elementsCount")
+    @Mapping(target = "errorsCount", source = "errorsCount")
+    public abstract SessionSummaryElastic toSummary(Session session, long elementsCount, long errorsCount);
+}
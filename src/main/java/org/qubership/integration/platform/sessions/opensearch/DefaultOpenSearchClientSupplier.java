@@ -17,10 +17,12 @@
 package org.qubership.integration.platform.sessions.opensearch;
 
 import org.apache.commons.lang3.StringUtils;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
 import org.opensearch.client.opensearch.OpenSearchClient;
 
 public class DefaultOpenSearchClientSupplier implements OpenSearchClientSupplier {
     private final OpenSearchClient client;
+    private final OpenSearchAsyncClient asyncClient;
     private final String prefix;
 
     public DefaultOpenSearchClientSupplier(
@@ -28,6 +30,7 @@ public class DefaultOpenSearchClientSupplier implements OpenSearchClientSupplier
         String prefix
     ) {
         this.client = client;
+        this.asyncClient = new OpenSearchAsyncClient(client._transport());
         this.prefix = prefix;
     }
 
@@ -36,6 +39,11 @@ public class DefaultOpenSearchClientSupplier implements OpenSearchClientSupplier
         return client;
     }
 
+    @Override
+    public OpenSearchAsyncClient getAsyncClient() {
+        return asyncClient;
+    }
+
     @Override
     public String normalize(String name) {
         return StringUtils.isEmpty(prefix) ? name : (prefix + "_" + name);
@@ -16,9 +16,11 @@
 
 package org.qubership.integration.platform.sessions.opensearch;
 
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
 import org.opensearch.client.opensearch.OpenSearchClient;
 
 public interface OpenSearchClientSupplier {
     OpenSearchClient getClient();
+    OpenSearchAsyncClient getAsyncClient();
     String normalize(String name);
 }
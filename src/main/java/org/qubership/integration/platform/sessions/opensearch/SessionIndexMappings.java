@@ -0,0 +1,146 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.opensearch;
+
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.mapping.Property;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Explicit mappings of sessions data. Fields used in filters and sorts are keywords with doc values,
+ * substring filters go to a wildcard subfield, payload that is never searched is not indexed.
+ */
+public final class SessionIndexMappings {
+    /**
+     * Bumped on every change of the elements mapping, indices of older versions are reindexed.
+     */
+    public static final long ELEMENTS_MAPPING_VERSION = 1;
+    public static final String MAPPING_VERSION_META_KEY = "mapping_version";
+    public static final String SUBSTRING_SUBFIELD = "wildcard";
+    public static final Set<String> SUBSTRING_FIELDS = Set.of("chainName", "engineAddress");
+    private static final int WILDCARD_MIN_MAJOR_VERSION = 2;
+    private static final int WILDCARD_MIN_MINOR_VERSION = 15;
+
+    private SessionIndexMappings() {}
+
+    public static Property keyword() {
+        return Property.of(property -> property.keyword(keyword -> keyword));
+    }
+
+    public static Property substringKeyword() {
+        return Property.of(property -> property.keyword(keyword -> keyword
+                .fields(SUBSTRING_SUBFIELD, Property.of(field -> field.wildcard(wildcard -> wildcard)))));
+    }
+
+    public static Property date() {
+        return Property.of(property -> property.date(date -> date));
+    }
+
+    public static Property number() {
+        return Property.of(property -> property.long_(number -> number));
+    }
+
+    public static Property bool() {
+        return Property.of(property -> property.boolean_(bool -> bool));
+    }
+
+    public static Property searchableText() {
+        return Property.of(property -> property.text(text -> text));
+    }
+
+    public static Property storedText() {
+        return Property.of(property -> property.text(text -> text.index(false)));
+    }
+
+    public static String substringField(String field) {
+        return SUBSTRING_FIELDS.contains(field) ? field + "." + SUBSTRING_SUBFIELD : field;
+    }
+
+    /**
+     * Whether the wildcard field type is supported by OpenSearch of the given version, it appeared in 2.15.
+     */
+    public static boolean isWildcardSupported(String version) {
+        if (version == null) {
+            return false;
+        }
+        String[] parts = version.split("[.-]");
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return major > WILDCARD_MIN_MAJOR_VERSION
+                    || (major == WILDCARD_MIN_MAJOR_VERSION && minor >= WILDCARD_MIN_MINOR_VERSION);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether all the substring fields of the mapping have the wildcard subfield.
+     */
+    public static boolean hasSubstringSubfields(TypeMapping mapping) {
+        return mapping != null && SUBSTRING_FIELDS.stream()
+                .map(field -> mapping.properties().get(field))
+                .allMatch(property -> property != null && property.isKeyword()
+                        && property.keyword().fields().containsKey(SUBSTRING_SUBFIELD));
+    }
+
+    public static TypeMapping getElementsMapping() {
+        return new TypeMapping.Builder()
+                .meta(Map.of(MAPPING_VERSION_META_KEY, JsonData.of(ELEMENTS_MAPPING_VERSION)))
+                .properties("id", keyword())
+                .properties("started", date())
+                .properties("finished", date())
+                .properties("duration", number())
+                .properties("executionStatus", keyword())
+                .properties("sessionId", keyword())
+                .properties("externalSessionId", keyword())
+                .properties("sessionStarted", date())
+                .properties("sessionFinished", date())
+                .properties("sessionDuration", number())
+                .properties("sessionExecutionStatus", keyword())
+                .properties("importedSession", bool())
+                .properties("chainId", keyword())
+                .properties("chainName", substringKeyword())
+                .properties("domain", keyword())
+                .properties("engineAddress", substringKeyword())
+                .properties("loggingLevel", keyword())
+                .properties("snapshotName", keyword())
+                .properties("correlationId", keyword())
+                .properties("chainElementId", keyword())
+                .properties("actualElementChainId", keyword())
+                .properties("elementName", keyword())
+                .properties("camelElementName", keyword())
+                .properties("prevElementId", keyword())
+                .properties("parentElementId", keyword())
+                .properties("parentSessionId", keyword())
+                .properties("bodyBefore", searchableText())
+                .properties("bodyAfter", searchableText())
+                .properties("headersBefore", searchableText())
+                .properties("headersAfter", searchableText())
+                .properties("contextBefore", searchableText())
+                .properties("contextAfter", searchableText())
+                .properties("propertiesBefore", storedText())
+                .properties("propertiesAfter", storedText())
+                .properties("exceptionInfo", Property.of(property -> property.object(object -> object
+                        .properties("message", searchableText())
+                        .properties("stackTrace", storedText()))))
+                .build();
+    }
+}
@@ -17,5 +17,14 @@
 package org.qubership.integration.platform.sessions.properties.opensearch;
 
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
-public record ElementsIndexProperties (@NotBlank String name) {}
+/**
+ * With manage mapping the service installs the elements index template and keeps the index behind an alias
+ * on the current mapping version. It is opt-in: on an existing deployment it reindexes all session elements
+ * in background, needs free space for a second copy until the reindex completes, and requires OpenSearch 2.15+.
+ */
+public record ElementsIndexProperties (
+    @NotBlank String name,
+    @DefaultValue("false") Boolean manageMapping
+) {}
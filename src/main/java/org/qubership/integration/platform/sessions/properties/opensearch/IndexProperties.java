@@ -21,7 +21,9 @@ import org.springframework.boot.context.properties.bind.DefaultValue;
 
 public record IndexProperties(
     String prefix,
-    @DefaultValue ElementsIndexProperties elements
+    @DefaultValue ElementsIndexProperties elements,
+    @DefaultValue SessionsIndexProperties sessions,
+    @DefaultValue StateIndexProperties state
 ) {
     @ConstructorBinding
     public IndexProperties {}
@@ -19,10 +19,16 @@ package org.qubership.integration.platform.sessions.properties.sessions;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 
+import java.time.Duration;
+
 public record BulkRequestProperties (
       @DefaultValue("4096") Integer maxSizeKb,
       @DefaultValue("4096") Integer payloadSizeThresholdKb,
-      @DefaultValue("5") Integer elementsCountThreshold
+      @DefaultValue("1000") Integer maxElements,
+      @DefaultValue("4") Integer maxConcurrentRequests,
+      @DefaultValue("5") Integer maxRetries,
+      @DefaultValue("200ms") Duration retryInitialBackoff,
+      @DefaultValue("10s") Duration retryMaxBackoff
 ) {
       @ConstructorBinding
       public BulkRequestProperties {}
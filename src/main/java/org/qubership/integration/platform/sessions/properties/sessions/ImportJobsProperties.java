@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.properties.sessions;
+
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+public record ImportJobsProperties (
+      String spoolDir,
+      @DefaultValue("1") Integer maxConcurrentJobs,
+      @DefaultValue("10") Integer maxQueuedJobs,
+      @DefaultValue("1h") Duration retention,
+      @DefaultValue("60s") Duration evictionInterval
+) {
+      @ConstructorBinding
+      public ImportJobsProperties {}
+}
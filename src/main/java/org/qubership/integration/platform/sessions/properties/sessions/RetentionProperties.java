@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.properties.sessions;
+
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Purge of old sessions. Purge runs only between window start and end of the local time,
+ * the window may pass midnight. Without a window purge may run at any time.
+ * A purge deletes at most max sessions per purge (up to 65536), the oldest ones first.
+ */
+public record RetentionProperties (
+      @DefaultValue("false") Boolean enabled,
+      @DefaultValue("10m") Duration checkInterval,
+      LocalTime windowStart,
+      LocalTime windowEnd,
+      @DefaultValue("500") Long requestsPerSecond,
+      @DefaultValue("50000") Integer maxSessionsPerPurge,
+      @DefaultValue List<RetentionPolicyProperties> policies
+) {
+      @ConstructorBinding
+      public RetentionProperties {}
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.bulk.CreateOperation;
+import org.opensearch.client.opensearch.core.bulk.IndexOperation;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.exception.ImportException;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.BulkRequestProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Writes session elements with bulk requests on the async client. Requests are flushed by size and
+ * elements count, the number of requests in flight is limited for the whole service and producers
+ * block until a request slot is free.
+ */
+@Slf4j
+@Service
+public class BulkIngestionService {
+    private static final String METRICS_PREFIX = "qip.sessions.bulk";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int CONFLICT = 409;
+    private static final Set<String> REJECTED_EXECUTION_ERRORS = Set.of(
+            "es_rejected_execution_exception", "rejected_execution_exception");
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final String indexName;
+    private final int maxSizeBytes;
+    private final int payloadSizeThresholdBytes;
+    private final int maxElements;
+    private final int maxConcurrentRequests;
+    private final int maxRetries;
+    private final long retryInitialBackoffMs;
+    private final long retryMaxBackoffMs;
+
+    private final ObjectMapper objectMapper;
+    private final OpenSearchClientSupplier openSearchClientSupplier;
+    private final Semaphore requestSlots;
+    private final ScheduledExecutorService retryScheduler;
+
+    private final Counter documentsCounter;
+    private final Counter bytesCounter;
+    private final Counter failedDocumentsCounter;
+    private final Counter retriedDocumentsCounter;
+    private final Timer requestTimer;
+
+    @Autowired
+    public BulkIngestionService(ObjectMapper objectMapper,
+                                OpenSearchClientSupplier openSearchClientSupplier,
+                                OpenSearchProperties openSearchProperties,
+                                SessionsProperties sessionsProperties,
+                                MeterRegistry meterRegistry) {
+        BulkRequestProperties properties = sessionsProperties.bulkRequest();
+        this.indexName = openSearchProperties.index().elements().name();
+        this.maxSizeBytes = properties.maxSizeKb() * 1024;
+        this.payloadSizeThresholdBytes = properties.payloadSizeThresholdKb() * 1024;
+        this.maxElements = properties.maxElements();
+        this.maxConcurrentRequests = properties.maxConcurrentRequests();
+        this.maxRetries = properties.maxRetries();
+        this.retryInitialBackoffMs = properties.retryInitialBackoff().toMillis();
+        this.retryMaxBackoffMs = properties.retryMaxBackoff().toMillis();
+        // Nulls are dropped as by the mapper of the opensearch client, so documents stay the same
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.openSearchClientSupplier = openSearchClientSupplier;
+        this.requestSlots = new Semaphore(maxConcurrentRequests);
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.documentsCounter = Counter.builder(METRICS_PREFIX + ".documents")
+                .description("Session elements written with bulk requests")
+                .register(meterRegistry);
+        this.bytesCounter = Counter.builder(METRICS_PREFIX + ".bytes")
+                .description("Size of session elements written with bulk requests")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.failedDocumentsCounter = Counter.builder(METRICS_PREFIX + ".documents.failed")
+                .description("Session elements rejected by bulk requests")
+                .register(meterRegistry);
+        this.retriedDocumentsCounter = Counter.builder(METRICS_PREFIX + ".documents.retried")
+                .description("Session elements sent again after rejection by overloaded cluster")
+                .register(meterRegistry);
+        this.requestTimer = Timer.builder(METRICS_PREFIX + ".requests")
+                .description("Bulk requests duration")
+                .register(meterRegistry);
+        Gauge.builder(METRICS_PREFIX + ".in_flight", requestSlots, slots -> maxConcurrentRequests - slots.availablePermits())
+                .description("Bulk requests in flight")
+                .register(meterRegistry);
+    }
+
+    public Ingestion start() {
+        return start(false);
+    }
+
+    /**
+     * @param create whether elements are written with op_type=create, so that existing elements are not
+     *               overwritten and their sessions are reported as conflicting
+     */
+    public Ingestion start(boolean create) {
+        return start(create, indexed -> {});
+    }
+
+    /**
+     * @param indexedListener receives numbers of elements written by each completed request
+     */
+    public Ingestion start(boolean create, LongConsumer indexedListener) {
+        return new Ingestion(create, indexedListener);
+    }
+
+    private long getBackoffMillis(int attempt) {
+        long backoff = Math.min(retryMaxBackoffMs, retryInitialBackoffMs << Math.min(attempt - 1, MAX_BACKOFF_SHIFT));
+        return ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1);
+    }
+
+    private static boolean isRetryable(BulkResponseItem item) {
+        return item.status() == TOO_MANY_REQUESTS || REJECTED_EXECUTION_ERRORS.contains(item.error().type());
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        return cause instanceof OpenSearchException exception && exception.status() == TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Serialized document written by the json generator as is. Only the unquoted UTF-8 methods are used
+     * for raw values, the others decode the document.
+     */
+    private static class RawDocument implements SerializableString {
+        private final byte[] bytes;
+
+        RawDocument(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int size() {
+            return bytes.length;
+        }
+
+        @Override
+        public String getValue() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return getValue().toCharArray();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return bytes;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return bytes;
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return appendUnquotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + bytes.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+            return bytes.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            String value = getValue();
+            if (offset + value.length() > buffer.length) {
+                return -1;
+            }
+            value.getChars(0, value.length(), buffer, offset);
+            return value.length();
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return writeUnquotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) {
+            return putUnquotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (bytes.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(bytes);
+            return bytes.length;
+        }
+    }
+
+    private record PendingOperation(BulkOperation operation, int size, String elementId, String sessionId) {}
+
+    /**
+     * Single run of ingestion, e.g. a file import. Is fed by one producer. Items rejected because of
+     * a saturated cluster are sent again with jittered exponential backoff.
+     */
+    public class Ingestion {
+        private final boolean create;
+        private final LongConsumer indexedListener;
+        private final List<PendingOperation> operations = new ArrayList<>();
+        // The producer is a party, each request in flight or waiting for retry is another one
+        private final Phaser requests = new Phaser(1);
+        private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+        private final Queue<String> rejections = new ConcurrentLinkedQueue<>();
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+        private final Set<String> conflictingSessionIds = ConcurrentHashMap.newKeySet();
+        private final Queue<PendingOperation> created = new ConcurrentLinkedQueue<>();
+        private long operationsSize = 0;
+
+        private Ingestion(boolean create, LongConsumer indexedListener) {
+            this.create = create;
+            this.indexedListener = indexedListener;
+        }
+
+        /**
+         * @return ids of sessions which elements already exist, filled in create mode only
+         */
+        public Set<String> getConflictingSessionIds() {
+            return Collections.unmodifiableSet(conflictingSessionIds);
+        }
+
+        /**
+         * @return ids of elements created by this ingestion for the matching sessions, filled in create mode only
+         */
+        public List<String> getCreatedElementIds(Predicate<String> sessionIdFilter) {
+            return created.stream()
+                    .filter(pending -> sessionIdFilter.test(pending.sessionId()))
+                    .map(PendingOperation::elementId)
+                    .toList();
+        }
+
+        public void add(SessionElementElastic element) {
+            checkFailure();
+            // Element is serialized once: the UTF-8 bytes are both measured and written as the document
+            RawDocument document;
+            try {
+                document = new RawDocument(objectMapper.writeValueAsBytes(element));
+            } catch (JsonProcessingException error) {
+                log.error("Failed to parse sessions write request. Element skipped");
+                throw new ImportException("Failed to parse sessions write request on element "
+                        + element.getElementName() + " in chain "
+                        + element.getChainName(), error);
+            }
+            int size = document.size();
+
+            BulkOperation.Builder builder = new BulkOperation.Builder();
+            if (create) {
+                builder.create(CreateOperation.of(co -> co
+                        .index(openSearchClientSupplier.normalize(indexName))
+                        .id(element.getId())
+                        .requireAlias(true)
+                        .document(new RawValue(document))
+                ));
+            } else {
+                builder.index(IndexOperation.of(io -> io
+                        .index(openSearchClientSupplier.normalize(indexName))
+                        .id(element.getId())
+                        .requireAlias(true)
+                        .document(new RawValue(document))
+                ));
+            }
+            PendingOperation pending = new PendingOperation(builder.build(), size, element.getId(), element.getSessionId());
+
+            if (size >= payloadSizeThresholdBytes) {
+                submit(List.of(pending));
+                return;
+            }
+            if (operationsSize + size > maxSizeBytes) {
+                flush();
+            }
+            operations.add(pending);
+            operationsSize += size;
+            if (operations.size() >= maxElements) {
+                flush();
+            }
+        }
+
+        /**
+         * Sends buffered elements, waits for all requests and retries of this ingestion and reports failed elements.
+         */
+        public void complete() {
+            flush();
+            requests.arriveAndAwaitAdvance();
+            checkFailure();
+            String separator = System.lineSeparator();
+            List<String> messages = new ArrayList<>();
+            if (!errors.isEmpty()) {
+                messages.add("Some sessions elements can't be saved to opensearch:"
+                        + separator + String.join(separator, errors));
+            }
+            if (!rejections.isEmpty()) {
+                messages.add("Some sessions elements were rejected by overloaded opensearch after " + maxRetries + " retries:"
+                        + separator + String.join(separator, rejections));
+            }
+            if (!messages.isEmpty()) {
+                throw new ImportException(String.join(separator, messages));
+            }
+        }
+
+        /**
+         * Drops buffered elements and waits for the requests in flight, so that the elements written
+         * by this ingestion are known before they are cleaned up after a failure.
+         */
+        public void abort() {
+            operations.clear();
+            operationsSize = 0;
+            requests.arriveAndAwaitAdvance();
+        }
+
+        private void flush() {
+            if (operations.isEmpty()) {
+                return;
+            }
+            submit(new ArrayList<>(operations));
+            operations.clear();
+            operationsSize = 0;
+        }
+
+        private void submit(List<PendingOperation> batch) {
+            requests.register();
+            try {
+                send(batch, 0);
+            } catch (RuntimeException error) {
+                requests.arriveAndDeregister();
+                throw error;
+            }
+        }
+
+        private void retry(List<PendingOperation> batch, int attempt) {
+            requests.register();
+            retryScheduler.schedule(() -> {
+                try {
+                    send(batch, attempt);
+                } catch (RuntimeException error) {
+                    failure.compareAndSet(null, error);
+                    requests.arriveAndDeregister();
+                }
+            }, getBackoffMillis(attempt), TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Sends a batch registered in {@link #requests}, the party arrives when the response is handled.
+         */
+        private void send(List<PendingOperation> batch, int attempt) {
+            try {
+                requestSlots.acquire();
+            } catch (InterruptedException error) {
+                Thread.currentThread().interrupt();
+                throw new ImportException("Import was interrupted while saving to opensearch", error);
+            }
+
+            BulkRequest request = new BulkRequest.Builder()
+                    .index(openSearchClientSupplier.normalize(indexName))
+                    .requireAlias(true)
+                    .operations(batch.stream().map(PendingOperation::operation).toList())
+                    .build();
+            Timer.Sample sample = Timer.start();
+            CompletableFuture<BulkResponse> response;
+            try {
+                response = openSearchClientSupplier.getAsyncClient().bulk(request);
+            } catch (IOException | RuntimeException error) {
+                requestSlots.release();
+                log.error("While sessions writing an error has occurred", error);
+                throw new ImportException("Import was failed while saving to opensearch", error);
+            }
+            response.whenComplete((bulk, error) -> {
+                requestSlots.release();
+                sample.stop(requestTimer);
+                try {
+                    if (error != null) {
+                        onFailure(batch, attempt, error);
+                    } else {
+                        onResponse(batch, attempt, bulk);
+                    }
+                } finally {
+                    requests.arriveAndDeregister();
+                }
+            });
+        }
+
+        private void onFailure(List<PendingOperation> batch, int attempt, Throwable error) {
+            if (isRetryable(error) && attempt < maxRetries) {
+                log.debug("Bulk request of {} elements is rejected, retry {} of {}", batch.size(), attempt + 1, maxRetries);
+                retriedDocumentsCounter.increment(batch.size());
+                retry(batch, attempt + 1);
+                return;
+            }
+            log.error("While sessions writing an error has occurred", error);
+            failure.compareAndSet(null, error instanceof Exception exception ? exception : new IllegalStateException(error));
+        }
+
+        private void onResponse(List<PendingOperation> batch, int attempt, BulkResponse response) {
+            List<PendingOperation> rejected = new ArrayList<>();
+            List<String> rejectionReasons = new ArrayList<>();
+            int succeeded = 0;
+            int failed = 0;
+            long size = 0;
+            for (int i = 0; i < response.items().size(); i++) {
+                BulkResponseItem item = response.items().get(i);
+                size += batch.get(i).size();
+                if (item.error() == null) {
+                    succeeded++;
+                    if (create) {
+                        created.add(batch.get(i));
+                    }
+                } else if (create && item.status() == CONFLICT) {
+                    conflictingSessionIds.add(batch.get(i).sessionId());
+                } else if (isRetryable(item)) {
+                    rejected.add(batch.get(i));
+                    rejectionReasons.add(item.error().reason());
+                } else {
+                    errors.add(item.error().reason());
+                    failed++;
+                }
+            }
+            if (!rejected.isEmpty()) {
+                if (attempt < maxRetries) {
+                    retriedDocumentsCounter.increment(rejected.size());
+                    retry(rejected, attempt + 1);
+                } else {
+                    rejections.addAll(rejectionReasons);
+                    failed += rejected.size();
+                }
+            }
+            documentsCounter.increment(succeeded);
+            indexedListener.accept(succeeded);
+            failedDocumentsCounter.increment(failed);
+            bytesCounter.increment(size);
+        }
+
+        private void checkFailure() {
+            Exception error = failure.get();
+            if (error != null) {
+                throw new ImportException("Import was failed while saving to opensearch", error);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.Conflicts;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.cat.indices.IndicesRecord;
+import org.opensearch.client.opensearch.core.DeleteByQueryRequest;
+import org.opensearch.client.opensearch.core.DeleteByQueryRethrottleRequest;
+import org.opensearch.client.opensearch.tasks.CancelRequest;
+import org.opensearch.client.opensearch.tasks.GetTasksRequest;
+import org.opensearch.client.opensearch.tasks.GetTasksResponse;
+import org.opensearch.client.opensearch.tasks.Status;
+import org.qubership.integration.platform.sessions.dto.DeleteTaskResponse;
+import org.qubership.integration.platform.sessions.exception.SearchException;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Runs delete by query as background OpenSearch tasks. Deletes are sliced by primary shards and never
+ * refresh per request: indices are refreshed once the task completes, followed by the completion callback.
+ * Tasks awaiting completion are tracked in memory of the replica which started them. If it restarts, the tasks
+ * still run to the end in OpenSearch, but the refresh and the callback (e.g. cache invalidation) are skipped:
+ * deleted sessions disappear with the periodic index refresh and cached results expire with their ttl.
+ */
+@Slf4j
+@Service
+public class DeleteTaskService {
+    private static final String DELETE_BY_QUERY_ACTION = "indices:data/write/delete/byquery";
+
+    private final OpenSearchClientSupplier openSearchClientSupplier;
+    // delete task id -> group of tasks sharing the refresh and the completion callback
+    private final Map<String, PendingDelete> pendingDeletes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public DeleteTaskService(OpenSearchClientSupplier openSearchClientSupplier) {
+        this.openSearchClientSupplier = openSearchClientSupplier;
+    }
+
+    /**
+     * Starts delete by query without waiting for its completion.
+     *
+     * @return id of the delete task
+     */
+    public String submit(List<String> indices, Query query, Long requestsPerSecond, Consumer<List<DeleteTaskResponse>> onComplete) {
+        return submit(indices, List.of(query), requestsPerSecond, onComplete).get(0);
+    }
+
+    /**
+     * Starts a delete task per query. Indices are refreshed and the callback is run once,
+     * after the last of the tasks completes, with results of all the tasks.
+     *
+     * @return ids of the delete tasks in the order of queries
+     */
+    public List<String> submit(List<String> indices, List<Query> queries, Long requestsPerSecond,
+                               Consumer<List<DeleteTaskResponse>> onComplete) {
+        long slices = getSlices(indices);
+        PendingDelete pendingDelete = new PendingDelete(indices, onComplete);
+        List<String> taskIds = new ArrayList<>();
+        // Completion of the first tasks is handled only after all of them are started
+        synchronized (pendingDelete) {
+            for (Query query : queries) {
+                DeleteByQueryRequest.Builder builder = new DeleteByQueryRequest.Builder()
+                        .index(indices)
+                        .ignoreUnavailable(true)
+                        .query(query)
+                        .conflicts(Conflicts.Proceed)
+                        .slices(slices)
+                        .waitForCompletion(false);
+                if (requestsPerSecond != null) {
+                    builder.requestsPerSecond(requestsPerSecond);
+                }
+                try {
+                    String taskId = openSearchClientSupplier.getClient().deleteByQuery(builder.build()).task();
+                    pendingDelete.taskIds.add(taskId);
+                    pendingDeletes.put(taskId, pendingDelete);
+                    taskIds.add(taskId);
+                    log.info("Started delete from {}, task {}", indices, taskId);
+                } catch (IOException e) {
+                    throw new SearchException("Unable to perform delete from OpenSearch", e);
+                }
+            }
+        }
+        return taskIds;
+    }
+
+    public Optional<DeleteTaskResponse> getTask(String taskId) {
+        return findDeleteTask(taskId).map(task -> toResponse(taskId, task));
+    }
+
+    /**
+     * Whether the task was started by this instance and its completion is not handled yet.
+     */
+    public boolean isPending(String taskId) {
+        return pendingDeletes.containsKey(taskId);
+    }
+
+    /**
+     * Changes throttle of the running task, -1 removes the throttle.
+     *
+     * @return false if there is no such delete task
+     */
+    public boolean rethrottle(String taskId, long requestsPerSecond) {
+        if (findDeleteTask(taskId).isEmpty()) {
+            return false;
+        }
+        try {
+            openSearchClientSupplier.getClient().deleteByQueryRethrottle(DeleteByQueryRethrottleRequest.of(request -> request
+                    .taskId(taskId)
+                    .requestsPerSecond(requestsPerSecond)));
+        } catch (IOException e) {
+            throw new SearchException("Unable to rethrottle delete task " + taskId, e);
+        }
+        return true;
+    }
+
+    /**
+     * Cancels the task. Elements deleted before cancellation stay deleted, so the completion callback still runs.
+     *
+     * @return false if there is no such delete task
+     */
+    public boolean cancel(String taskId) {
+        if (findDeleteTask(taskId).isEmpty()) {
+            return false;
+        }
+        try {
+            openSearchClientSupplier.getClient().tasks().cancel(CancelRequest.of(request -> request.taskId(taskId)));
+        } catch (IOException e) {
+            throw new SearchException("Unable to cancel delete task " + taskId, e);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the task if it is a delete by query, so that other tasks of the cluster can't be seen or managed.
+     */
+    private Optional<GetTasksResponse> findDeleteTask(String taskId) {
+        try {
+            GetTasksResponse task = openSearchClientSupplier.getClient().tasks()
+                    .get(GetTasksRequest.of(request -> request.taskId(taskId)));
+            if (task.task() == null || !DELETE_BY_QUERY_ACTION.equals(task.task().action())) {
+                log.warn("Task {} is not a delete by query task", taskId);
+                return Optional.empty();
+            }
+            return Optional.of(task);
+        } catch (OpenSearchException e) {
+            if (e.status() == HttpStatus.NOT_FOUND.value()) {
+                return Optional.empty();
+            }
+            throw new SearchException("Unable to get delete task " + taskId, e);
+        } catch (IOException e) {
+            throw new SearchException("Unable to get delete task " + taskId, e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 5_000)
+    public void completeDeletes() {
+        if (pendingDeletes.isEmpty()) {
+            return;
+        }
+        OpenSearchClient client = openSearchClientSupplier.getClient();
+        for (Map.Entry<String, PendingDelete> entry : pendingDeletes.entrySet()) {
+            String taskId = entry.getKey();
+            try {
+                GetTasksResponse task = client.tasks().get(GetTasksRequest.of(request -> request.taskId(taskId)));
+                if (!task.completed()) {
+                    continue;
+                }
+                pendingDeletes.remove(taskId);
+                PendingDelete pendingDelete = entry.getValue();
+                DeleteTaskResponse result = toResponse(taskId, task);
+                synchronized (pendingDelete) {
+                    pendingDelete.taskIds.remove(taskId);
+                    pendingDelete.results.add(result);
+                    if (pendingDelete.taskIds.isEmpty()) {
+                        // The task is no longer pending, so the callback runs even if the refresh fails
+                        try {
+                            client.indices().refresh(request -> request.index(pendingDelete.indices).ignoreUnavailable(true));
+                        } finally {
+                            pendingDelete.onComplete.accept(pendingDelete.results);
+                        }
+                    }
+                }
+                log.info("Delete task {} completed, {} of {} elements deleted", taskId, result.getDeleted(), result.getTotal());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to check delete task {}", taskId, e);
+            }
+        }
+    }
+
+    /**
+     * Same number of slices as slices=auto would choose: primary shards count of the index with the fewest shards.
+     */
+    private long getSlices(List<String> indices) {
+        try {
+            return openSearchClientSupplier.getClient().cat().indices(request -> request.index(indices)).valueBody().stream()
+                    .map(IndicesRecord::pri)
+                    .filter(Objects::nonNull)
+                    .mapToLong(Long::parseLong)
+                    .min()
+                    .orElse(1L);
+        } catch (IOException | OpenSearchException e) {
+            log.debug("Unable to get primary shards count of {}, deleting in a single slice: {}", indices, e.getMessage());
+            return 1L;
+        }
+    }
+
+    private static DeleteTaskResponse toResponse(String taskId, GetTasksResponse task) {
+        Status status = task.response() != null ? task.response() : task.task().status();
+        DeleteTaskResponse.DeleteTaskResponseBuilder builder = DeleteTaskResponse.builder()
+                .taskId(taskId)
+                .completed(task.completed());
+        if (status != null) {
+            builder.total(status.total())
+                    .deleted(status.deleted())
+                    .versionConflicts(status.versionConflicts())
+                    .requestsPerSecond(status.requestsPerSecond());
+        }
+        if (task.error() != null) {
+            builder.error(task.error().reason());
+        } else if (status != null && !status.failures().isEmpty()) {
+            builder.error(status.failures().size() + " session elements failed to delete");
+        }
+        return builder.build();
+    }
+
+    private static class PendingDelete {
+        private final List<String> indices;
+        private final Consumer<List<DeleteTaskResponse>> onComplete;
+        private final Set<String> taskIds = new HashSet<>();
+        private final List<DeleteTaskResponse> results = new ArrayList<>();
+
+        PendingDelete(List<String> indices, Consumer<List<DeleteTaskResponse>> onComplete) {
+            this.indices = indices;
+            this.onComplete = onComplete;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch._types.Conflicts;
+import org.opensearch.client.opensearch._types.OpType;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch.core.ReindexRequest;
+import org.opensearch.client.opensearch.indices.CreateIndexRequest;
+import org.opensearch.client.opensearch.indices.DeleteIndexRequest;
+import org.opensearch.client.opensearch.indices.ExistsAliasRequest;
+import org.opensearch.client.opensearch.indices.ExistsRequest;
+import org.opensearch.client.opensearch.indices.GetAliasRequest;
+import org.opensearch.client.opensearch.indices.GetMappingRequest;
+import org.opensearch.client.opensearch.indices.PutIndexTemplateRequest;
+import org.opensearch.client.opensearch.indices.UpdateAliasesRequest;
+import org.opensearch.client.opensearch.indices.get_mapping.IndexMappingRecord;
+import org.opensearch.client.opensearch.tasks.GetTasksRequest;
+import org.opensearch.client.opensearch.tasks.GetTasksResponse;
+import org.qubership.integration.platform.sessions.dto.opensearch.ServiceStateElastic;
+import org.qubership.integration.platform.sessions.exception.SearchException;
+import org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.ElementsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.ELEMENTS_MAPPING_VERSION;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.MAPPING_VERSION_META_KEY;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.getElementsMapping;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.hasSubstringSubfields;
+
+/**
+ * Installs the index template of the session elements index and keeps indices behind the elements alias
+ * on the current mapping version. On a version change a new index becomes the write index of the alias,
+ * older indices are reindexed into it and deleted once their reindex task completes.
+ * Migration runs on the replica holding the mapping lock, reindex tasks are recorded in the service state index.
+ * Substring filters use the wildcard subfield only once every index behind the alias is confirmed to have it.
+ * The mapping is managed only if enabled and the cluster supports the wildcard field type (OpenSearch 2.15+),
+ * enabling it on an existing deployment reindexes all its session elements in background.
+ */
+@Slf4j
+@Service
+public class ElementsIndexManager {
+    private static final String TEMPLATE_SUFFIX = "-template";
+    private static final String VERSION_SUFFIX = "-v";
+    private static final int TEMPLATE_PRIORITY = 100;
+    private static final String MAPPING_LOCK = "elements-mapping";
+    private static final String REINDEX_STATE_PREFIX = "elements-reindex-";
+    private static final Duration LOCK_TTL = Duration.ofMinutes(2);
+    private static final int NOT_FOUND = 404;
+
+    private final OpenSearchClientSupplier openSearchClientSupplier;
+    private final ServiceStateService serviceStateService;
+    private final ElementsIndexProperties properties;
+
+    private volatile Boolean wildcardSupported;
+    private volatile boolean templateApplied = false;
+    private volatile boolean substringSubfieldsReady = false;
+
+    @Autowired
+    public ElementsIndexManager(OpenSearchClientSupplier openSearchClientSupplier,
+                                OpenSearchProperties openSearchProperties,
+                                ServiceStateService serviceStateService) {
+        this.openSearchClientSupplier = openSearchClientSupplier;
+        this.serviceStateService = serviceStateService;
+        this.properties = openSearchProperties.index().elements();
+    }
+
+    public boolean isMappingManaged() {
+        return properties.manageMapping();
+    }
+
+    /**
+     * Whether the template is installed and every index behind the elements alias has the wildcard subfields.
+     * It is not the case while older indices are being reindexed, or if the elements index is not an alias.
+     */
+    public boolean isSubstringSubfieldsReady() {
+        return substringSubfieldsReady;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void applyMapping() {
+        if (isMappingManaged()) {
+            migrate();
+        }
+    }
+
+    @Scheduled(fixedDelay = 30_000)
+    public void completeReindex() {
+        if (isMappingManaged()) {
+            migrate();
+        }
+    }
+
+    private void migrate() {
+        String alias = openSearchClientSupplier.normalize(properties.name());
+        try {
+            if (!isWildcardSupported()) {
+                return;
+            }
+            if (!templateApplied) {
+                putTemplate(alias);
+                templateApplied = true;
+            }
+            if (serviceStateService.tryLock(MAPPING_LOCK, LOCK_TTL)) {
+                migrate(alias);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to apply mapping version {} to elements index {}", ELEMENTS_MAPPING_VERSION, alias, e);
+        }
+        refreshSubstringSubfieldsReady(alias);
+    }
+
+    /**
+     * Brings the alias to the current mapping version. Every step is idempotent, so a migration interrupted
+     * by a restart or moved to another replica continues where it stopped.
+     */
+    private void migrate(String alias) throws IOException {
+        String currentIndex = alias + VERSION_SUFFIX + ELEMENTS_MAPPING_VERSION;
+        if (!aliasExists(alias)) {
+            if (indexExists(alias)) {
+                log.warn("Elements index {} is not an alias, mapping version {} is not applied", alias, ELEMENTS_MAPPING_VERSION);
+                return;
+            }
+            createIndex(currentIndex, alias);
+            return;
+        }
+
+        List<String> outdatedIndices = getAliasIndices(alias).stream()
+                .filter(index -> !index.equals(currentIndex))
+                .filter(index -> getMappingVersion(getMapping(index)) < ELEMENTS_MAPPING_VERSION)
+                .toList();
+        if (outdatedIndices.isEmpty()) {
+            return;
+        }
+        if (!indexExists(currentIndex)) {
+            createIndex(currentIndex, null);
+        }
+        switchWriteIndex(alias, currentIndex, outdatedIndices);
+        for (String index : outdatedIndices) {
+            ServiceStateElastic state = serviceStateService.getState(REINDEX_STATE_PREFIX + index).orElse(null);
+            if (state == null || state.getCursor() == null) {
+                startReindex(index, currentIndex);
+            } else if (!Boolean.TRUE.equals(state.getCompleted())) {
+                completeReindex(alias, index, currentIndex, state);
+            }
+        }
+    }
+
+    /**
+     * Checked once, a cluster without the wildcard field type is left with its dynamic mapping.
+     */
+    private boolean isWildcardSupported() throws IOException {
+        if (wildcardSupported == null) {
+            String version = openSearchClientSupplier.getClient().info().version().number();
+            wildcardSupported = SessionIndexMappings.isWildcardSupported(version);
+            if (!wildcardSupported) {
+                log.warn("OpenSearch {} doesn't support the wildcard field type, mapping of elements index {} is not managed",
+                        version, properties.name());
+            }
+        }
+        return wildcardSupported;
+    }
+
+    private void completeReindex(String alias, String index, String currentIndex, ServiceStateElastic state) throws IOException {
+        String taskId = state.getCursor();
+        GetTasksResponse task;
+        try {
+            task = openSearchClientSupplier.getClient().tasks()
+                    .get(GetTasksRequest.of(request -> request.taskId(taskId)));
+        } catch (OpenSearchException e) {
+            if (e.status() != NOT_FOUND) {
+                throw e;
+            }
+            log.warn("Reindex task {} of elements index {} is not found, reindex is started again", taskId, index);
+            startReindex(index, currentIndex);
+            return;
+        }
+        if (!task.completed()) {
+            return;
+        }
+        if (task.error() != null || hasFailures(task)) {
+            // Recorded as completed so that the failed reindex is not retried, the index stays in the alias
+            state.setCompleted(true);
+            serviceStateService.putState(REINDEX_STATE_PREFIX + index, state);
+            log.error("Reindex of elements index {} finished with failures, index is kept in alias {}", index, alias);
+            return;
+        }
+        openSearchClientSupplier.getClient().indices().updateAliases(UpdateAliasesRequest.of(request -> request
+                .actions(action -> action.remove(remove -> remove.index(index).alias(alias)))));
+        try {
+            openSearchClientSupplier.getClient().indices().delete(DeleteIndexRequest.of(request -> request.index(index)));
+        } catch (OpenSearchException e) {
+            if (e.status() != NOT_FOUND) {
+                throw e;
+            }
+        }
+        state.setCompleted(true);
+        serviceStateService.putState(REINDEX_STATE_PREFIX + index, state);
+        log.info("Elements index {} reindexed to mapping version {} and deleted", index, ELEMENTS_MAPPING_VERSION);
+    }
+
+    private void refreshSubstringSubfieldsReady(String alias) {
+        try {
+            substringSubfieldsReady = templateApplied
+                    && aliasExists(alias)
+                    && getAliasIndices(alias).stream()
+                            .map(this::getMapping)
+                            .allMatch(mapping -> getMappingVersion(mapping) >= ELEMENTS_MAPPING_VERSION
+                                    && hasSubstringSubfields(mapping));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to check mapping of elements index {}, substring filters use plain fields", alias, e);
+            substringSubfieldsReady = false;
+        }
+    }
+
+    private void putTemplate(String alias) throws IOException {
+        openSearchClientSupplier.getClient().indices().putIndexTemplate(PutIndexTemplateRequest.of(request -> request
+                .name(alias + TEMPLATE_SUFFIX)
+                .indexPatterns(alias + VERSION_SUFFIX + "*")
+                .priority(TEMPLATE_PRIORITY)
+                .version(ELEMENTS_MAPPING_VERSION)
+                .template(template -> template.mappings(getElementsMapping()))));
+    }
+
+    private void createIndex(String index, String writeAlias) throws IOException {
+        CreateIndexRequest.Builder builder = new CreateIndexRequest.Builder().index(index);
+        if (writeAlias != null) {
+            builder.aliases(writeAlias, alias -> alias.isWriteIndex(true));
+        }
+        openSearchClientSupplier.getClient().indices().create(builder.build());
+        log.info("Created elements index {} with mapping version {}", index, ELEMENTS_MAPPING_VERSION);
+    }
+
+    private void switchWriteIndex(String alias, String index, List<String> outdatedIndices) throws IOException {
+        openSearchClientSupplier.getClient().indices().updateAliases(UpdateAliasesRequest.of(request -> {
+            request.actions(action -> action.add(add -> add.index(index).alias(alias).isWriteIndex(true)));
+            outdatedIndices.forEach(outdated ->
+                    request.actions(action -> action.add(add -> add.index(outdated).alias(alias).isWriteIndex(false))));
+            return request;
+        }));
+    }
+
+    private void startReindex(String source, String destination) throws IOException {
+        // Documents written to the new index after the switch win over their older copies
+        String taskId = openSearchClientSupplier.getClient().reindex(ReindexRequest.of(request -> request
+                .source(src -> src.index(source))
+                .dest(dest -> dest.index(destination).opType(OpType.Create))
+                .conflicts(Conflicts.Proceed)
+                .waitForCompletion(false))).task();
+        serviceStateService.putState(REINDEX_STATE_PREFIX + source, ServiceStateElastic.builder().cursor(taskId).build());
+        log.info("Started reindex of elements index {} into {}, task {}", source, destination, taskId);
+    }
+
+    private boolean hasFailures(GetTasksResponse task) {
+        return Optional.ofNullable(task.response())
+                .map(response -> !response.failures().isEmpty())
+                .orElse(false);
+    }
+
+    private boolean aliasExists(String alias) throws IOException {
+        return openSearchClientSupplier.getClient().indices()
+                .existsAlias(ExistsAliasRequest.of(request -> request.name(alias))).value();
+    }
+
+    private boolean indexExists(String index) throws IOException {
+        return openSearchClientSupplier.getClient().indices()
+                .exists(ExistsRequest.of(request -> request.index(index))).value();
+    }
+
+    private List<String> getAliasIndices(String alias) throws IOException {
+        return openSearchClientSupplier.getClient().indices()
+                .getAlias(GetAliasRequest.of(request -> request.name(alias)))
+                .result().keySet().stream().sorted().toList();
+    }
+
+    private TypeMapping getMapping(String index) {
+        try {
+            IndexMappingRecord record = openSearchClientSupplier.getClient().indices()
+                    .getMapping(GetMappingRequest.of(request -> request.index(index)))
+                    .result().get(index);
+            return Optional.ofNullable(record).map(IndexMappingRecord::mappings).orElse(null);
+        } catch (IOException e) {
+            throw new SearchException("Unable to get mapping of elements index " + index, e);
+        }
+    }
+
+    private static long getMappingVersion(TypeMapping mapping) {
+        return Optional.ofNullable(mapping)
+                .map(TypeMapping::meta)
+                .map(meta -> meta.get(MAPPING_VERSION_META_KEY))
+                .map(version -> version.to(Long.class))
+                .orElse(0L);
+    }
+}
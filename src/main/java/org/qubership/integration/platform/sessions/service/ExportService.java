@@ -16,47 +16,124 @@
 
 package org.qubership.integration.platform.sessions.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.qubership.integration.platform.sessions.dto.ExportFormat;
 import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.dto.filter.FilterRequestAndSearchDTO;
 import org.qubership.integration.platform.sessions.exception.SessionsNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ExportService {
     private static final DateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH_mm_ss");
-    private static final String JSON_EXTENSION = ".json";
+    private static final int SESSIONS_BATCH_SIZE = 50;
 
     private final SessionService sessionService;
     private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
 
     @Autowired
     public ExportService(SessionService sessionService, ObjectMapper jsonMapper) {
         this.sessionService = sessionService;
         this.jsonMapper = jsonMapper;
+        this.smileMapper = jsonMapper.copyWith(new SmileFactory());
     }
 
-    public Pair<String, String> exportSessions(List<String> sessionsIds) throws JsonProcessingException {
-        List<Session> sessions = sessionsIds.stream().map(id -> sessionService.findById(id,
-            SessionService.SESSION_ID_KEY, false, true
-        )).collect(Collectors.toList());
-        if (sessions.isEmpty()) {
+    /**
+     * Prepares export of the sessions as an array in the given format. The first found session names the file,
+     * the rest are fetched in batches of {@link #SESSIONS_BATCH_SIZE} while the body is streamed.
+     */
+    public Pair<String, StreamingResponseBody> exportSessions(List<String> sessionsIds, ExportFormat format, boolean pretty) {
+        int from = 0;
+        List<Session> firstBatch = Collections.emptyList();
+        while (firstBatch.isEmpty() && from < sessionsIds.size()) {
+            int to = Math.min(from + SESSIONS_BATCH_SIZE, sessionsIds.size());
+            firstBatch = findSessions(sessionsIds.subList(from, to));
+            from = to;
+        }
+        if (firstBatch.isEmpty()) {
             throw new SessionsNotFoundException("Sessions not found");
         }
-        return getExportedSessions(sessions.get(0).getChainId(), sessions);
+
+        List<Session> firstSessions = firstBatch;
+        List<String> remainingIds = sessionsIds.subList(from, sessionsIds.size());
+        ObjectWriter writer = getWriter(format, pretty);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                firstSessions.forEach(session -> writeSession(writer, generator, session));
+                writeSessions(writer, generator, remainingIds);
+                generator.writeEndArray();
+            }
+        };
+        return Pair.of(getExportFileName(firstSessions.get(0).getChainId(), format), body);
+    }
+
+    /**
+     * Prepares export of all sessions matching the filter. Matching sessions are found page by page
+     * while the body is streamed, so the export holds only a page of ids and one session at a time.
+     */
+    public Pair<String, StreamingResponseBody> exportSessionsByFilter(String chainId,
+                                                                      FilterRequestAndSearchDTO filterRequest,
+                                                                      ExportFormat format,
+                                                                      boolean pretty) {
+        ObjectWriter writer = getWriter(format, pretty);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                sessionService.scanSessionIds(chainId, filterRequest, sessionIds -> writeSessions(writer, generator, sessionIds));
+                generator.writeEndArray();
+            }
+        };
+        String fileName = StringUtils.isEmpty(chainId)
+                ? "sessions-(" + DATE_FORMAT.format(new Date()) + ")" + format.getExtension()
+                : getExportFileName(chainId, format);
+        return Pair.of(fileName, body);
+    }
+
+    private ObjectWriter getWriter(ExportFormat format, boolean pretty) {
+        if (format == ExportFormat.SMILE) {
+            return smileMapper.writer();
+        }
+        return pretty ? jsonMapper.writerWithDefaultPrettyPrinter() : jsonMapper.writer();
+    }
+
+    private void writeSessions(ObjectWriter writer, JsonGenerator generator, List<String> sessionsIds) {
+        for (int from = 0; from < sessionsIds.size(); from += SESSIONS_BATCH_SIZE) {
+            findSessions(sessionsIds.subList(from, Math.min(from + SESSIONS_BATCH_SIZE, sessionsIds.size())))
+                    .forEach(session -> writeSession(writer, generator, session));
+        }
+    }
+
+    private List<Session> findSessions(List<String> sessionsIds) {
+        return sessionService.findByIds(sessionsIds, true);
+    }
+
+    private static void writeSession(ObjectWriter writer, JsonGenerator generator, Session session) {
+        try {
+            writer.writeValue(generator, session);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
-    private Pair<String,String> getExportedSessions(String chainId, List<Session> sessions) throws JsonProcessingException {
-        String json = jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(sessions);
-        return Pair.of("chain-sessions-" + chainId + "-(" + DATE_FORMAT.format(new Date()) + ")" + JSON_EXTENSION, json);
+    private static String getExportFileName(String chainId, ExportFormat format) {
+        return "chain-sessions-" + chainId + "-(" + DATE_FORMAT.format(new Date()) + ")" + format.getExtension();
     }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.qubership.integration.platform.sessions.dto.ImportConflictMode;
+import org.qubership.integration.platform.sessions.dto.ImportJobResponse;
+import org.qubership.integration.platform.sessions.dto.ImportJobStatus;
+import org.qubership.integration.platform.sessions.exception.ImportException;
+import org.qubership.integration.platform.sessions.exception.ImportJobsLimitException;
+import org.qubership.integration.platform.sessions.properties.sessions.ImportJobsProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs imports in background: uploaded files are spooled to local disk and imported on a bounded pool,
+ * so that long imports hold neither request threads nor connections.
+ * Jobs are kept in memory of the replica which accepted them: progress of a job is only visible on that replica
+ * and is lost on its restart, jobs queued or running on shutdown are not resumed.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+    private static final String SPOOL_FILE_EXTENSION = ".upload";
+    private static final Duration RETRY_AFTER = Duration.ofMinutes(1);
+
+    private final ImportService importService;
+    private final Path spoolDir;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ImportJobService(ImportService importService, SessionsProperties sessionsProperties) {
+        ImportJobsProperties properties = sessionsProperties.importJobs();
+        this.importService = importService;
+        this.spoolDir = Path.of(StringUtils.isBlank(properties.spoolDir())
+                ? System.getProperty("java.io.tmpdir")
+                : properties.spoolDir());
+        this.retention = properties.retention();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                properties.maxConcurrentJobs(),
+                properties.maxConcurrentJobs(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.maxQueuedJobs()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "import-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ImportJobResponse submit(MultipartFile[] files, ImportConflictMode conflictMode) {
+        String jobId = UUID.randomUUID().toString();
+        Path jobDir = spoolDir.resolve(jobId);
+        List<ImportService.ImportFile> spooledFiles = new ArrayList<>();
+        long totalBytes = 0;
+        try {
+            Files.createDirectories(jobDir);
+            for (int i = 0; i < files.length; i++) {
+                Path path = jobDir.resolve(i + SPOOL_FILE_EXTENSION);
+                files[i].transferTo(path);
+                spooledFiles.add(new ImportService.ImportFile(files[i].getOriginalFilename(), new FileSystemResource(path)));
+                totalBytes += files[i].getSize();
+            }
+        } catch (IOException error) {
+            deleteSpooledFiles(jobDir);
+            log.error("Failed to store files of import job {}", jobId, error);
+            throw new ImportException("Failed to store files of import job", error);
+        }
+
+        ImportJob job = new ImportJob(jobId, files.length, totalBytes);
+        jobs.put(jobId, job);
+        try {
+            executor.execute(() -> run(job, spooledFiles, conflictMode, jobDir));
+        } catch (RejectedExecutionException error) {
+            jobs.remove(jobId);
+            deleteSpooledFiles(jobDir);
+            throw new ImportJobsLimitException("Too many import jobs are queued, try again later", RETRY_AFTER, error);
+        }
+        log.info("Import job {} with {} files is queued", jobId, files.length);
+        return job.toResponse();
+    }
+
+    public Optional<ImportJobResponse> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::toResponse);
+    }
+
+    @Scheduled(fixedDelayString = "${qip.sessions.import-jobs.eviction-interval:60s}")
+    public void evictFinishedJobs() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+    }
+
+    /**
+     * Stops running imports and removes spooled files of queued jobs, these jobs are not resumed after restart.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        jobs.values().stream()
+                .filter(job -> job.status == ImportJobStatus.QUEUED)
+                .forEach(job -> {
+                    log.warn("Import job {} is dropped on shutdown", job.id);
+                    deleteSpooledFiles(spoolDir.resolve(job.id));
+                });
+    }
+
+    private void run(ImportJob job,
+                     List<ImportService.ImportFile> files,
+                     ImportConflictMode conflictMode,
+                     Path jobDir) {
+        job.start();
+        try {
+            importService.importSessions(files, conflictMode, job.progress);
+            job.complete();
+            log.info("Import job {} completed, {} sessions imported", job.id, job.progress.getSessionsIndexed());
+        } catch (RuntimeException error) {
+            log.error("Import job {} failed", job.id, error);
+            job.fail(Objects.toString(error.getMessage(), error.getClass().getName()));
+        } finally {
+            deleteSpooledFiles(jobDir);
+        }
+    }
+
+    private void deleteSpooledFiles(Path jobDir) {
+        try {
+            FileSystemUtils.deleteRecursively(jobDir);
+        } catch (IOException error) {
+            log.warn("Failed to delete spooled files {}", jobDir, error);
+        }
+    }
+
+    private static class ImportJob {
+        private final String id;
+        private final int filesCount;
+        private final long totalBytes;
+        private final Instant createdAt = Instant.now();
+        private final ImportProgress progress = new ImportProgress();
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        ImportJob(String id, int filesCount, long totalBytes) {
+            this.id = id;
+            this.filesCount = filesCount;
+            this.totalBytes = totalBytes;
+        }
+
+        void start() {
+            startedAt = Instant.now();
+            status = ImportJobStatus.RUNNING;
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            status = ImportJobStatus.COMPLETED;
+        }
+
+        void fail(String error) {
+            this.error = error;
+            finishedAt = Instant.now();
+            status = ImportJobStatus.FAILED;
+        }
+
+        boolean isFinishedBefore(Instant threshold) {
+            return finishedAt != null && finishedAt.isBefore(threshold);
+        }
+
+        ImportJobResponse toResponse() {
+            long elements = progress.getElementsIndexed();
+            long bytes = progress.getBytesProcessed();
+            double seconds = startedAt == null
+                    ? 0
+                    : Duration.between(startedAt, finishedAt == null ? Instant.now() : finishedAt).toMillis() / 1000.0;
+            return ImportJobResponse.builder()
+                    .id(id)
+                    .status(status)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .filesCount(filesCount)
+                    .totalBytes(totalBytes)
+                    .bytesProcessed(bytes)
+                    .sessionsIndexed(progress.getSessionsIndexed())
+                    .elementsIndexed(elements)
+                    .skippedSessionIds(progress.getSkippedSessionIds())
+                    .elementsPerSecond(seconds > 0 ? elements / seconds : 0)
+                    .bytesPerSecond(seconds > 0 ? bytes / seconds : 0)
+                    .error(error)
+                    .build();
+        }
+    }
+}
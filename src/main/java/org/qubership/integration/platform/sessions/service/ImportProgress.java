@@ -0,0 +1,68 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a running import, updated by the import and read by the job status requests.
+ */
+public class ImportProgress {
+    private final AtomicLong bytesProcessed = new AtomicLong();
+    private final AtomicLong sessionsIndexed = new AtomicLong();
+    private final AtomicLong elementsIndexed = new AtomicLong();
+    private final Set<String> skippedSessionIds = ConcurrentHashMap.newKeySet();
+
+    public void addBytesProcessed(long bytes) {
+        bytesProcessed.addAndGet(bytes);
+    }
+
+    public void addSessionsIndexed(long sessions) {
+        sessionsIndexed.addAndGet(sessions);
+    }
+
+    public void addElementsIndexed(long elements) {
+        elementsIndexed.addAndGet(elements);
+    }
+
+    public void addSkippedSessions(Collection<String> sessionIds) {
+        skippedSessionIds.addAll(sessionIds);
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed.get();
+    }
+
+    public long getSessionsIndexed() {
+        return sessionsIndexed.get();
+    }
+
+    public long getElementsIndexed() {
+        return elementsIndexed.get();
+    }
+
+    /**
+     * @return ids of sessions not imported in SKIP mode because they already exist
+     */
+    public List<String> getSkippedSessionIds() {
+        return List.copyOf(skippedSessionIds);
+    }
+}
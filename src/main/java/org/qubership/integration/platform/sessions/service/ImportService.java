@@ -16,181 +16,268 @@
 
 package org.qubership.integration.platform.sessions.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 
 import lombok.extern.slf4j.Slf4j;
 
-import org.opensearch.client.opensearch.core.BulkRequest;
-import org.opensearch.client.opensearch.core.BulkResponse;
-import org.opensearch.client.opensearch.core.bulk.BulkOperation;
-import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
-import org.opensearch.client.opensearch.core.bulk.IndexOperation;
+import org.qubership.integration.platform.sessions.dto.ImportConflictMode;
 import org.qubership.integration.platform.sessions.dto.Session;
-import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
 import org.qubership.integration.platform.sessions.exception.ImportConflictException;
 import org.qubership.integration.platform.sessions.exception.ImportException;
 import org.qubership.integration.platform.sessions.mapper.SessionElementMapper;
-import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
-import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
-import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
 @Slf4j
 @Service
 public class ImportService {
-    private final String indexName;
-
-    private final int bulkRequestMaxSizeBytes;
-    private final int bulkRequestPayloadSizeThresholdBytes;
-    private final int bulkRequestElementsCountThreshold;
-
     private final ObjectMapper objectMapper;
     private final SessionElementMapper elementMapper;
-    private final OpenSearchClientSupplier openSearchClientSupplier;
     private final SessionService sessionService;
+    private final SessionSummaryService sessionSummaryService;
+    private final SessionQueryCache sessionQueryCache;
+    private final BulkIngestionService bulkIngestionService;
 
     @Autowired
     public ImportService(ObjectMapper objectMapper,
                          SessionElementMapper elementMapper,
-                         SessionsProperties sessionsProperties,
-                         OpenSearchClientSupplier openSearchClientSupplier,
-                         OpenSearchProperties openSearchProperties,
-                         SessionService sessionService) {
-        this.indexName = openSearchProperties.index().elements().name();
+                         SessionService sessionService,
+                         SessionSummaryService sessionSummaryService,
+                         SessionQueryCache sessionQueryCache,
+                         BulkIngestionService bulkIngestionService) {
         this.objectMapper = objectMapper;
         this.elementMapper = elementMapper;
-        this.openSearchClientSupplier = openSearchClientSupplier;
         this.sessionService = sessionService;
+        this.sessionSummaryService = sessionSummaryService;
+        this.sessionQueryCache = sessionQueryCache;
+        this.bulkIngestionService = bulkIngestionService;
+    }
 
-        this.bulkRequestMaxSizeBytes = sessionsProperties.bulkRequest().maxSizeKb() * 1024;
-        this.bulkRequestPayloadSizeThresholdBytes = sessionsProperties.bulkRequest().payloadSizeThresholdKb() * 1024;
-        this.bulkRequestElementsCountThreshold = sessionsProperties.bulkRequest().elementsCountThreshold();
+    /**
+     * Imports the files in the request thread. Sessions skipped in SKIP mode are reported with a conflict
+     * once all the files are imported.
+     */
+    public List<Session> importSessions(MultipartFile[] files, ImportConflictMode conflictMode) {
+        List<ImportFile> importFiles = Arrays.stream(files)
+                .map(file -> new ImportFile(file.getOriginalFilename(), file))
+                .toList();
+        ImportProgress progress = new ImportProgress();
+        List<Session> sessions = importSessions(importFiles, conflictMode, progress);
+        List<String> skipped = progress.getSkippedSessionIds();
+        if (!skipped.isEmpty()) {
+            throw new ImportConflictException(String.format(
+                    "%d sessions are imported, sessions duplicates are skipped: %s", sessions.size(), skipped));
+        }
+        return sessions;
     }
 
-    public List<Session> importSessions(MultipartFile[] files) {
+    public List<Session> importSessions(List<ImportFile> files, ImportConflictMode conflictMode, ImportProgress progress) {
         List<Session> resultSessions = new ArrayList<>();
-        for (MultipartFile file : files) {
-            List<Session> sessions;
-            try {
-                sessions = Arrays.asList(objectMapper.readValue(new String(file.getBytes()), Session[].class));
-            } catch (IOException error) {
+        Set<String> importedIds = new HashSet<>();
+        for (ImportFile file : files) {
+            if (conflictMode != ImportConflictMode.CHECK) {
+                // Duplicates are detected by OpenSearch while writing
+                resultSessions.addAll(writeSessions(file, conflictMode, progress));
+                continue;
+            }
+            List<String> sessionIds = scanFile(file);
+            checkExisting(file.name(), sessionIds, importedIds);
+
+            log.debug("Found {} sessions in file {}", sessionIds.size(), file.name());
+            resultSessions.addAll(writeSessions(file, conflictMode, progress));
+            importedIds.addAll(sessionIds);
+        }
+        return resultSessions;
+    }
+
+    /**
+     * First pass over the file: collects ids of sessions, the rest of a session is skipped by the parser
+     * without being deserialized.
+     */
+    private List<String> scanFile(ImportFile file) {
+        List<String> sessionIds = new ArrayList<>();
+        try (SessionFileReader<SessionId> reader = new SessionFileReader<>(objectMapper,
+                file.source().getInputStream(), SessionId.class)) {
+            while (reader.hasNext()) {
+                sessionIds.add(reader.next().id());
+            }
+        } catch (IOException | RuntimeJsonMappingException error) {
+            log.error("Error while reading file: {}", error.getMessage());
+            throw new ImportException("Error while reading file " + file.name(), error);
+        }
+        return sessionIds;
+    }
+
+    /**
+     * Second pass over the file (the only one if duplicates are detected on write): maps and writes sessions one by one.
+     * In SKIP and ROLLBACK modes each session is claimed first by creating its summary, its elements are written
+     * only if the claim succeeds, so of concurrent imports of a session only one writes it.
+     */
+    private List<Session> writeSessions(ImportFile file, ImportConflictMode conflictMode, ImportProgress progress) {
+        boolean claim = conflictMode != ImportConflictMode.CHECK;
+        List<Session> sessions = new ArrayList<>();
+        List<SessionSummaryElastic> summaries = new ArrayList<>();
+        Set<String> claimedIds = new HashSet<>();
+        Set<String> conflicts = new LinkedHashSet<>();
+        BulkIngestionService.Ingestion ingestion = bulkIngestionService.start(claim, progress::addElementsIndexed);
+        try {
+            try (SessionFileReader<Session> reader = new SessionFileReader<>(objectMapper,
+                    new ProgressInputStream(file.source().getInputStream(), progress), Session.class)) {
+                while (reader.hasNext()) {
+                    Session session = reader.next();
+                    session.setChainId(null);
+                    session.setImportedSession(true);
+                    SessionSummaryElastic summary = sessionSummaryService.toSummary(session);
+                    if (claim) {
+                        // A session mentioned twice in the file is a duplicate of its first copy, which stays intact
+                        if (claimedIds.contains(session.getId()) || !sessionSummaryService.claimSummary(summary)) {
+                            conflicts.add(session.getId());
+                            if (conflictMode == ImportConflictMode.ROLLBACK) {
+                                break;
+                            }
+                            continue;
+                        }
+                        claimedIds.add(session.getId());
+                    } else {
+                        summaries.add(summary);
+                    }
+                    elementMapper.toElasticElements(session.getSessionElements(), session).forEach(ingestion::add);
+                    session.setSessionElements(null);
+                    sessions.add(session);
+                }
+            } catch (IOException | RuntimeJsonMappingException error) {
                 log.error("Error while reading file: {}", error.getMessage());
-                throw new ImportException("Error while reading file " + file.getOriginalFilename(), error);
+                throw new ImportException("Error while reading file " + file.name(), error);
             }
+            ingestion.complete();
+        } catch (RuntimeException error) {
+            if (claim) {
+                releaseClaims(file.name(), ingestion, claimedIds, error);
+            }
+            throw error;
+        }
 
-            checkExisting(file.getOriginalFilename(), sessions, resultSessions);
+        // Claimed sessions with already existing elements, e.g. written by an engine and not yet summarized
+        Set<String> elementConflicts = ingestion.getConflictingSessionIds();
+        conflicts.addAll(elementConflicts);
+        if (!conflicts.isEmpty()) {
+            resolveConflicts(file.name(), conflictMode, ingestion, claimedIds, elementConflicts, conflicts, progress);
+            sessions.removeIf(session -> conflicts.contains(session.getId()));
+        }
+        sessionSummaryService.indexSummaries(summaries);
+        sessionQueryCache.invalidateAll();
+        progress.addSessionsIndexed(sessions.size());
+        return sessions;
+    }
 
-            log.debug("Found {} sessions in file {}", sessions.size(), file.getName());
-            sessions.forEach(session -> session.setChainId(null));
-            sessions.forEach(session -> session.setImportedSession(true));
-            List<SessionElementElastic> sessionElements = elementMapper.toElements(sessions);
+    private void resolveConflicts(String filename,
+                                  ImportConflictMode conflictMode,
+                                  BulkIngestionService.Ingestion ingestion,
+                                  Set<String> claimedIds,
+                                  Set<String> elementConflicts,
+                                  Set<String> conflicts,
+                                  ImportProgress progress) {
+        if (conflictMode == ImportConflictMode.ROLLBACK) {
+            // Only sessions claimed by this file are touched, summaries of the existing sessions are rebuilt
+            sessionService.deleteElementsByIds(claimedIds, ingestion.getCreatedElementIds(sessionId -> true));
+            log.error("File {} is rolled back because of sessions duplicates: {}", filename, conflicts);
+            throw new ImportConflictException(String.format("File %s can't be imported because of sessions duplicates: %s", filename, conflicts));
+        }
+        // Elements written for a claimed session which turned out to exist are removed, existing session stays intact
+        if (!elementConflicts.isEmpty()) {
+            sessionService.deleteElementsByIds(elementConflicts, ingestion.getCreatedElementIds(elementConflicts::contains));
+        }
+        progress.addSkippedSessions(conflicts);
+        log.warn("Sessions duplicates from file {} are skipped: {}", filename, conflicts);
+    }
 
-            writeElements(sessionElements);
-            resultSessions.addAll(sessions);
+    /**
+     * Removes everything written for the sessions claimed by a failed import, so that a retry of the import
+     * doesn't take them for duplicates.
+     */
+    private void releaseClaims(String filename,
+                               BulkIngestionService.Ingestion ingestion,
+                               Set<String> claimedIds,
+                               RuntimeException error) {
+        try {
+            ingestion.abort();
+            sessionService.deleteElementsByIds(claimedIds, ingestion.getCreatedElementIds(sessionId -> true));
+            log.info("Sessions written from failed import of file {} are removed", filename);
+        } catch (RuntimeException cleanupError) {
+            log.error("Failed to remove sessions written from failed import of file {}: {}", filename, claimedIds, cleanupError);
+            error.addSuppressed(cleanupError);
         }
-        resultSessions.forEach(session -> session.setSessionElements(null));
-        return resultSessions;
     }
 
-    private void checkExisting(String filename, List<Session> sessions, List<Session> resultSessions) {
+    private void checkExisting(String filename, List<String> sessionIds, Set<String> importedIds) {
         Set<String> existingIds = new HashSet<>();
-        for (Session session : sessions) {
-            if (sessionService.findById(session.getId(),SessionService.SESSION_ID_KEY, true, false) != null || // Session in db already exists
-                    sessions.stream().filter(s -> s.getId().equals(session.getId())).count() > 1 || // Session in current file mentioned twice and more
-                    resultSessions.stream().anyMatch(s -> s.getId().equals(session.getId())) // Session in current import in different file (In case it's not yet written in opensearch)
+        Set<String> fileIds = new HashSet<>();
+        for (String sessionId : sessionIds) {
+            if (!fileIds.add(sessionId) || // Session in current file mentioned twice and more
+                    importedIds.contains(sessionId) // Session in current import in different file (In case it's not yet written in opensearch)
                     ) {
-                existingIds.add(session.getId());
+                existingIds.add(sessionId);
             }
         }
+        existingIds.addAll(sessionService.findExistingIds(fileIds)); // Session in db already exists
         if (!existingIds.isEmpty()) {
             log.error("File {} can't be imported because of sessions duplicates: {}", filename, existingIds);
             throw new ImportConflictException(String.format("File %s can't be imported because of sessions duplicates: %s", filename, existingIds));
         }
     }
 
-    private void writeElements(List<SessionElementElastic> sessionElements) {
-        int bulkRequestSize = 0;
-
-        byte[] payload;
-        int payloadSize;
-        boolean needToExecuteBulk;
-        List<BulkOperation> updateRequests = new ArrayList<>();
-
-        Iterator<SessionElementElastic> iterator = sessionElements.iterator();
-        while (iterator.hasNext()) {
-            SessionElementElastic element = iterator.next();
-            try {
-                payload = objectMapper.writeValueAsBytes(element);
-            } catch (JsonProcessingException error) {
-                log.error("Failed to parse sessions write request. Element skipped");
-                throw new ImportException("Failed to parse sessions write request on element "
-                        + element.getElementName() + " in chain "
-                        + element.getChainName(), error);
-            }
+    /**
+     * File to import: uploaded or spooled by an import job.
+     */
+    public record ImportFile(String name, InputStreamSource source) {}
 
-            payloadSize = payload.length;
-            BulkOperation request = new BulkOperation.Builder()
-                    .index(IndexOperation.of(io -> io
-                            .index(openSearchClientSupplier.normalize(indexName))
-                            .id(element.getId())
-                            .requireAlias(true)
-                            .document(element)
-                    ))
-                    .build();
-
-            try {
-                if (payloadSize >= bulkRequestPayloadSizeThresholdBytes || sessionElements.size() <= bulkRequestElementsCountThreshold) {
-                    executeBulk(new ArrayList<>(List.of(request)));
-                } else {
-                    updateRequests.add(request);
-                    bulkRequestSize += payloadSize;
-                }
+    /**
+     * Id of a session in an import file, other properties are skipped.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SessionId(String id) {}
 
-                needToExecuteBulk =
-                        bulkRequestSize >= bulkRequestMaxSizeBytes ||
-                                (!iterator.hasNext() && !updateRequests.isEmpty());
-                if (needToExecuteBulk) {
-                    executeBulk(updateRequests);
-                    bulkRequestSize = 0;
-                }
-            } catch (Exception error) {
-                log.error("While sessions writing an error has occurred", error);
-                throw new ImportException("Import was failed while saving to opensearch", error);
-            }
+    private static class ProgressInputStream extends FilterInputStream {
+        private final ImportProgress progress;
+
+        ProgressInputStream(InputStream inputStream, ImportProgress progress) {
+            super(inputStream);
+            this.progress = progress;
         }
-    }
 
-    private void executeBulk(List<BulkOperation> updateRequests) throws IOException {
-        BulkRequest bulkRequest = new BulkRequest.Builder()
-                .index(openSearchClientSupplier.normalize(indexName))
-                .requireAlias(true)
-                .operations(updateRequests)
-                .build();
-        BulkResponse bulk = openSearchClientSupplier.getClient().bulk(bulkRequest);
-        updateRequests.clear();
-        checkAndLogFailedElements(bulk);
-    }
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                progress.addBytesProcessed(1);
+            }
+            return value;
+        }
 
-    private void checkAndLogFailedElements(BulkResponse response) {
-        String separator = System.getProperty("line.separator");
-        StringBuilder errorMessages = new StringBuilder(separator);
-        for (BulkResponseItem bulkItemResponse : response.items()) {
-            if (bulkItemResponse.error() != null) {
-                errorMessages.append(bulkItemResponse.error().reason());
-                errorMessages.append(separator);
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                progress.addBytesProcessed(count);
             }
+            return count;
         }
-        if (errorMessages.toString().isBlank()) {
-            return;
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            progress.addBytesProcessed(skipped);
+            return skipped;
         }
-        errorMessages.insert(0, "Some sessions elements can't be saved to opensearch:");
-        throw new ImportException(errorMessages.toString());
     }
 }
-
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.FieldSort;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.SortOptions;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch._types.query_dsl.RangeQuery;
+import org.opensearch.client.opensearch._types.query_dsl.TermsQuery;
+import org.opensearch.client.opensearch._types.query_dsl.TermsQueryField;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.qubership.integration.platform.sessions.dto.DeleteTaskResponse;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
+import org.qubership.integration.platform.sessions.exception.SearchException;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.sessions.RetentionPolicyProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.RetentionProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Purges sessions older than their retention policy allows. The governing policy of a session is resolved
+ * from its summary, which has the final status of the session. Expired sessions are purged with a throttled
+ * background delete, deletes still running when the purge window closes are cancelled and continue
+ * in the next window. Purge runs on the single replica holding the retention lock.
+ */
+@Slf4j
+@Service
+public class RetentionService {
+    private static final String METRICS_PREFIX = "qip.sessions.retention";
+    private static final String LOCK_NAME = "retention";
+    private static final String SESSION_ID_KEY = "sessionId";
+    private static final String SESSION_STARTED_KEY = "sessionStarted";
+    private static final String CHAIN_ID_KEY = "chainId";
+    private static final String SESSION_EXECUTION_STATUS_KEY = "sessionExecutionStatus";
+    private static final int SCAN_PAGE_SIZE = 1000;
+    // index.max_terms_count default, sessions of a purge are deleted by a single terms query
+    private static final int MAX_TERMS_COUNT = 65_536;
+
+    private final SessionService sessionService;
+    private final SessionSummaryService sessionSummaryService;
+    private final DeleteTaskService deleteTaskService;
+    private final ServiceStateService serviceStateService;
+    private final OpenSearchClientSupplier openSearchClientSupplier;
+    private final RetentionProperties properties;
+    private final Duration lockTtl;
+
+    private final Counter deletedDocumentsCounter;
+    private final Counter failedPurgesCounter;
+    private final Timer purgeTimer;
+
+    // delete tasks of the last started purge
+    private volatile List<String> purgeTasks = List.of();
+
+    @Autowired
+    public RetentionService(SessionService sessionService,
+                            SessionSummaryService sessionSummaryService,
+                            DeleteTaskService deleteTaskService,
+                            ServiceStateService serviceStateService,
+                            OpenSearchClientSupplier openSearchClientSupplier,
+                            SessionsProperties sessionsProperties,
+                            MeterRegistry meterRegistry) {
+        this.sessionService = sessionService;
+        this.sessionSummaryService = sessionSummaryService;
+        this.deleteTaskService = deleteTaskService;
+        this.serviceStateService = serviceStateService;
+        this.openSearchClientSupplier = openSearchClientSupplier;
+        this.properties = sessionsProperties.retention();
+        // The holder prolongs the lock on every check, another replica takes over after two missed checks
+        this.lockTtl = properties.checkInterval().multipliedBy(2);
+
+        this.deletedDocumentsCounter = Counter.builder(METRICS_PREFIX + ".documents.deleted")
+                .description("Session elements and summaries deleted by retention")
+                .register(meterRegistry);
+        this.failedPurgesCounter = Counter.builder(METRICS_PREFIX + ".purges.failed")
+                .description("Retention purges finished with errors")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder(METRICS_PREFIX + ".purges")
+                .description("Time from start to completion of retention purges")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${qip.sessions.retention.check-interval:10m}")
+    public void purge() {
+        if (!properties.enabled()) {
+            return;
+        }
+        List<String> runningTasks = purgeTasks.stream().filter(deleteTaskService::isPending).toList();
+        if (!serviceStateService.tryLock(LOCK_NAME, lockTtl)) {
+            if (!runningTasks.isEmpty()) {
+                log.info("Retention lock moved to another replica, cancelling purge tasks {}", runningTasks);
+                runningTasks.forEach(this::cancel);
+            }
+            return;
+        }
+        boolean inWindow = isInWindow(LocalTime.now());
+        if (!runningTasks.isEmpty()) {
+            if (!inWindow) {
+                log.info("Retention window is closed, cancelling purge tasks {}", runningTasks);
+                runningTasks.forEach(this::cancel);
+            }
+            return;
+        }
+        if (!inWindow) {
+            return;
+        }
+        if (!sessionSummaryService.isBackfillCompleted()) {
+            log.debug("Purge of sessions waits for summaries of all sessions to be built");
+            return;
+        }
+
+        Timer.Sample sample = Timer.start();
+        try {
+            List<String> sessionIds = findExpiredSessions(Instant.now());
+            if (sessionIds.isEmpty()) {
+                return;
+            }
+            Query query = getTermsQuery(SESSION_ID_KEY, sessionIds);
+            purgeTasks = sessionService.deleteByQueriesAsync(List.of(query), properties.requestsPerSecond(),
+                    results -> completePurge(results, sample));
+            log.info("Started purge of {} expired sessions, tasks {}", sessionIds.size(), purgeTasks);
+        } catch (RuntimeException e) {
+            failedPurgesCounter.increment();
+            log.warn("Failed to start purge of sessions", e);
+        }
+    }
+
+    /**
+     * Queries summaries of sessions expired by each policy, oldest first. A session is governed by the first
+     * policy matching its chain and final status, so sessions matching earlier policies are excluded
+     * from the query of a policy.
+     *
+     * @return ids of sessions expired by their policy, at most max sessions per purge
+     */
+    List<String> findExpiredSessions(Instant now) {
+        int limit = Math.min(properties.maxSessionsPerPurge(), MAX_TERMS_COUNT);
+        List<String> expired = new ArrayList<>();
+        List<Query> earlierPolicies = new ArrayList<>();
+        try {
+            for (RetentionPolicyProperties policy : properties.policies()) {
+                if (expired.size() >= limit) {
+                    break;
+                }
+                if (policy.maxAge() != null) {
+                    Query query = new BoolQuery.Builder()
+                            .filter(new RangeQuery.Builder()
+                                    .field(SESSION_STARTED_KEY)
+                                    .lt(JsonData.of(Date.from(now.minus(policy.maxAge()))))
+                                    .build().toQuery())
+                            .filter(getPolicyFilters(policy))
+                            .mustNot(earlierPolicies)
+                            .build().toQuery();
+                    findSessions(query, limit - expired.size(), expired);
+                }
+                List<Query> filters = getPolicyFilters(policy);
+                if (filters.isEmpty()) {
+                    // The policy matches all sessions, later policies govern none
+                    break;
+                }
+                earlierPolicies.add(new BoolQuery.Builder().filter(filters).build().toQuery());
+            }
+        } catch (IOException e) {
+            throw new SearchException("Unable to find expired sessions", e);
+        }
+        return expired;
+    }
+
+    private void findSessions(Query query, int limit, List<String> sessionIds) throws IOException {
+        int found = 0;
+        List<String> searchAfter = null;
+        while (found < limit) {
+            int pageSize = Math.min(SCAN_PAGE_SIZE, limit - found);
+            SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
+                    .index(sessionSummaryService.getIndexName())
+                    .size(pageSize)
+                    .query(query)
+                    .source(source -> source.filter(filter -> filter.includes(SESSION_ID_KEY)))
+                    .sort(getSort(SESSION_STARTED_KEY), getSort(SESSION_ID_KEY));
+            if (searchAfter != null) {
+                requestBuilder.searchAfter(searchAfter);
+            }
+            List<Hit<SessionSummaryElastic>> hits = openSearchClientSupplier.getClient()
+                    .search(requestBuilder.build(), SessionSummaryElastic.class).hits().hits();
+            for (Hit<SessionSummaryElastic> hit : hits) {
+                if (hit.source() != null) {
+                    sessionIds.add(hit.source().getSessionId());
+                }
+            }
+            found += hits.size();
+            if (hits.size() < pageSize) {
+                break;
+            }
+            searchAfter = hits.get(hits.size() - 1).sort();
+        }
+    }
+
+    private static List<Query> getPolicyFilters(RetentionPolicyProperties policy) {
+        List<Query> filters = new ArrayList<>();
+        if (!policy.chainIds().isEmpty()) {
+            filters.add(getTermsQuery(CHAIN_ID_KEY, policy.chainIds()));
+        }
+        if (!policy.statuses().isEmpty()) {
+            filters.add(getTermsQuery(SESSION_EXECUTION_STATUS_KEY,
+                    policy.statuses().stream().map(Enum::name).toList()));
+        }
+        return filters;
+    }
+
+    private static Query getTermsQuery(String field, List<String> values) {
+        return new TermsQuery.Builder()
+                .field(field)
+                .terms(new TermsQueryField.Builder().value(values.stream().map(FieldValue::of).toList()).build())
+                .build().toQuery();
+    }
+
+    private static SortOptions getSort(String field) {
+        return new SortOptions.Builder()
+                .field(new FieldSort.Builder().field(field).order(SortOrder.Asc).build())
+                .build();
+    }
+
+    private void completePurge(List<DeleteTaskResponse> results, Timer.Sample sample) {
+        sample.stop(purgeTimer);
+        long deleted = results.stream()
+                .map(DeleteTaskResponse::getDeleted)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .sum();
+        deletedDocumentsCounter.increment(deleted);
+        List<String> errors = results.stream()
+                .map(DeleteTaskResponse::getError)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!errors.isEmpty()) {
+            failedPurgesCounter.increment();
+            log.warn("Purge of sessions finished with errors, {} documents deleted: {}", deleted, errors);
+        } else {
+            log.info("Purge of sessions finished, {} documents deleted", deleted);
+        }
+    }
+
+    private void cancel(String taskId) {
+        try {
+            deleteTaskService.cancel(taskId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to cancel purge task {}", taskId, e);
+        }
+    }
+
+    private boolean isInWindow(LocalTime time) {
+        LocalTime start = properties.windowStart();
+        LocalTime end = properties.windowEnd();
+        if (start == null || end == null || start.equals(end)) {
+            return true;
+        }
+        return start.isBefore(end)
+                ? !time.isBefore(start) && time.isBefore(end)
+                : !time.isBefore(start) || time.isBefore(end);
+    }
+}
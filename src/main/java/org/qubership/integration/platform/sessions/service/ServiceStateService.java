@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch._types.OpType;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch.core.GetRequest;
+import org.opensearch.client.opensearch.core.GetResponse;
+import org.opensearch.client.opensearch.core.IndexRequest;
+import org.opensearch.client.opensearch.indices.CreateIndexRequest;
+import org.opensearch.client.opensearch.indices.ExistsRequest;
+import org.qubership.integration.platform.sessions.dto.opensearch.ServiceStateElastic;
+import org.qubership.integration.platform.sessions.exception.SearchException;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.bool;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.keyword;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.number;
+
+/**
+ * Keeps state shared by all replicas in the service state index: progress of background jobs
+ * and locks, so that a background job runs on a single replica at a time.
+ */
+@Slf4j
+@Service
+public class ServiceStateService {
+    private static final String LOCK_PREFIX = "lock-";
+    private static final int CONFLICT = 409;
+
+    private final String indexName;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final OpenSearchClientSupplier openSearchClientSupplier;
+
+    private volatile boolean indexReady = false;
+
+    @Autowired
+    public ServiceStateService(OpenSearchClientSupplier openSearchClientSupplier,
+                               OpenSearchProperties openSearchProperties) {
+        this.indexName = openSearchProperties.index().state().name();
+        this.openSearchClientSupplier = openSearchClientSupplier;
+    }
+
+    public String getIndexName() {
+        return openSearchClientSupplier.normalize(indexName);
+    }
+
+    /**
+     * Acquires the lock or prolongs it if this instance already holds it. A lock held by another instance
+     * is taken over once it expires, so the holder must prolong the lock more often than the ttl.
+     * Lock documents are changed with optimistic concurrency control, only one of competing instances wins.
+     *
+     * @return whether this instance holds the lock for the next ttl
+     */
+    public boolean tryLock(String name, Duration ttl) {
+        String id = LOCK_PREFIX + name;
+        long now = System.currentTimeMillis();
+        try {
+            ensureIndex();
+            GetResponse<ServiceStateElastic> current = get(id);
+            IndexRequest.Builder<ServiceStateElastic> request = new IndexRequest.Builder<ServiceStateElastic>()
+                    .index(getIndexName())
+                    .id(id)
+                    .document(ServiceStateElastic.builder()
+                            .owner(instanceId)
+                            .lockedUntil(now + ttl.toMillis())
+                            .build());
+            if (!current.found()) {
+                request.opType(OpType.Create);
+            } else {
+                ServiceStateElastic lock = current.source();
+                if (lock != null && !instanceId.equals(lock.getOwner())
+                        && lock.getLockedUntil() != null && lock.getLockedUntil() > now) {
+                    return false;
+                }
+                request.ifSeqNo(current.seqNo()).ifPrimaryTerm(current.primaryTerm());
+            }
+            openSearchClientSupplier.getClient().index(request.build());
+            return true;
+        } catch (OpenSearchException e) {
+            if (e.status() != CONFLICT) {
+                log.warn("Failed to acquire lock {}", name, e);
+            }
+            return false;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to acquire lock {}", name, e);
+            return false;
+        }
+    }
+
+    public Optional<ServiceStateElastic> getState(String name) {
+        try {
+            ensureIndex();
+            GetResponse<ServiceStateElastic> response = get(name);
+            return response.found() ? Optional.ofNullable(response.source()) : Optional.empty();
+        } catch (IOException e) {
+            throw new SearchException("Unable to get service state " + name, e);
+        }
+    }
+
+    public void putState(String name, ServiceStateElastic state) {
+        try {
+            ensureIndex();
+            openSearchClientSupplier.getClient().index(new IndexRequest.Builder<ServiceStateElastic>()
+                    .index(getIndexName())
+                    .id(name)
+                    .document(state)
+                    .build());
+        } catch (IOException e) {
+            throw new SearchException("Unable to save service state " + name, e);
+        }
+    }
+
+    private GetResponse<ServiceStateElastic> get(String id) throws IOException {
+        // Realtime get sees the latest write without a refresh
+        return openSearchClientSupplier.getClient().get(GetRequest.of(request -> request
+                .index(getIndexName())
+                .id(id)
+                .realtime(true)), ServiceStateElastic.class);
+    }
+
+    private void ensureIndex() throws IOException {
+        if (indexReady) {
+            return;
+        }
+        String index = getIndexName();
+        boolean exists = openSearchClientSupplier.getClient().indices()
+                .exists(ExistsRequest.of(request -> request.index(index))).value();
+        if (!exists) {
+            try {
+                openSearchClientSupplier.getClient().indices().create(CreateIndexRequest.of(request -> request
+                        .index(index)
+                        .mappings(getMapping())));
+                log.info("Created service state index {}", index);
+            } catch (OpenSearchException e) {
+                // Another replica may have created the index in the meantime
+                if (!openSearchClientSupplier.getClient().indices()
+                        .exists(ExistsRequest.of(request -> request.index(index))).value()) {
+                    throw e;
+                }
+            }
+        }
+        indexReady = true;
+    }
+
+    private static TypeMapping getMapping() {
+        return new TypeMapping.Builder()
+                .properties("owner", keyword())
+                .properties("lockedUntil", number())
+                .properties("checkpoint", number())
+                .properties("cursor", keyword())
+                .properties("completed", bool())
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.qubership.integration.platform.sessions.dto.ExecutionStatus;
+import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.properties.sessions.CacheProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Cache of assembled finished sessions. A finished session never changes, so it is kept
+ * until evicted by weight or time, or invalidated by a delete. Invalidation reaches only the local
+ * replica, so entries expire a fixed time after they are written, however often they are read.
+ * Sessions are kept Smile encoded, every read gets its own copy.
+ */
+@Slf4j
+@Component
+public class SessionCache {
+    private static final String CACHE_NAME = "sessions";
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final ObjectMapper smileMapper;
+    private final Cache<Key, Entry> cache;
+
+    @Autowired
+    public SessionCache(ObjectMapper objectMapper, SessionsProperties sessionsProperties, MeterRegistry meterRegistry) {
+        CacheProperties properties = sessionsProperties.cache();
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(properties.maxWeightMb() * 1024L * 1024L)
+                .weigher((Key key, Entry entry) -> ENTRY_OVERHEAD_BYTES + entry.session().length)
+                .expireAfterWrite(properties.expireAfterWrite())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Session get(Key key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return smileMapper.readValue(entry.session(), Session.class);
+        } catch (IOException e) {
+            log.warn("Failed to read cached session {}, it is loaded again", key.sessionId(), e);
+            cache.invalidate(key);
+            return null;
+        }
+    }
+
+    public void putIfFinished(Key key, Session session) {
+        if (session != null && isFinished(session)) {
+            try {
+                cache.put(key, new Entry(session.getChainId(), smileMapper.writeValueAsBytes(session)));
+            } catch (IOException e) {
+                log.warn("Failed to cache session {}", key.sessionId(), e);
+            }
+        }
+    }
+
+    public void invalidateBySessionId(String sessionId) {
+        cache.asMap().keySet().removeIf(key -> key.sessionId().equals(sessionId));
+    }
+
+    public void invalidateByChainId(String chainId) {
+        cache.asMap().values().removeIf(entry -> StringUtils.equals(chainId, entry.chainId()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static boolean isFinished(Session session) {
+        return StringUtils.isNotEmpty(session.getFinished())
+                && session.getExecutionStatus() != null
+                && session.getExecutionStatus() != ExecutionStatus.IN_PROGRESS;
+    }
+
+    public record Key(String sessionId, boolean light, boolean includeElements) {}
+
+    private record Entry(String chainId, byte[] session) {}
+}
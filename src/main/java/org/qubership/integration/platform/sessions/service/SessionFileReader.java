@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Reads sessions one by one from an import file. Format is detected by content: JSON array of sessions,
+ * sessions separated by new lines (NDJSON), Smile encoded sessions, any of them gzip compressed,
+ * or a zip archive of such files.
+ * Compressed content is inflated while being read. Sessions are bound to the given type, properties
+ * unknown to it are skipped by the parser without being materialized.
+ */
+public class SessionFileReader<T> implements Closeable {
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    private static final byte[] SMILE_MAGIC = {':', ')', '\n'};
+    private static final int MAGIC_LENGTH = 4;
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final ObjectReader reader;
+    private ObjectReader smileReader;
+    private final InputStream source;
+    private final ZipInputStream zip;
+    private MappingIterator<T> iterator;
+
+    public SessionFileReader(ObjectMapper objectMapper, InputStream inputStream, Class<T> type) throws IOException {
+        // The reader never closes streams, so that entries are read from the same zip stream
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.reader = objectMapper.readerFor(type).without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        this.source = inputStream;
+        InputStream content = decompress(new BufferedInputStream(inputStream));
+        if (startsWith(content, ZIP_MAGIC)) {
+            this.zip = new ZipInputStream(content);
+        } else {
+            this.zip = null;
+            this.iterator = readValues(content);
+        }
+    }
+
+    public boolean hasNext() throws IOException {
+        while (iterator == null || !iterator.hasNext()) {
+            if (!nextEntry()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public T next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return iterator.next();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (iterator != null) {
+            iterator.close();
+        }
+        source.close();
+    }
+
+    private boolean nextEntry() throws IOException {
+        if (zip == null) {
+            return false;
+        }
+        ZipEntry entry;
+        do {
+            entry = zip.getNextEntry();
+        } while (entry != null && entry.isDirectory());
+        if (entry == null) {
+            return false;
+        }
+        if (iterator != null) {
+            iterator.close();
+        }
+        iterator = readValues(decompress(new BufferedInputStream(new EntryInputStream(zip))));
+        return true;
+    }
+
+    private MappingIterator<T> readValues(InputStream content) throws IOException {
+        if (!startsWith(content, SMILE_MAGIC)) {
+            return reader.readValues(content);
+        }
+        if (smileReader == null) {
+            smileReader = objectMapper.copyWith(new SmileFactory())
+                    .readerFor(type)
+                    .without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        }
+        return smileReader.readValues(content);
+    }
+
+    private static InputStream decompress(BufferedInputStream inputStream) throws IOException {
+        return startsWith(inputStream, GZIP_MAGIC)
+                ? new BufferedInputStream(new GZIPInputStream(inputStream))
+                : inputStream;
+    }
+
+    private static boolean startsWith(InputStream inputStream, byte[] magic) throws IOException {
+        inputStream.mark(MAGIC_LENGTH);
+        try {
+            byte[] head = inputStream.readNBytes(magic.length);
+            if (head.length < magic.length) {
+                return false;
+            }
+            for (int i = 0; i < magic.length; i++) {
+                if (head[i] != magic[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    /**
+     * Current zip entry, closing it must not close the archive.
+     */
+    private static class EntryInputStream extends FilterInputStream {
+        EntryInputStream(ZipInputStream zip) {
+            super(zip);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
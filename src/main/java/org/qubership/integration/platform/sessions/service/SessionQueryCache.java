@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.apache.commons.lang3.StringUtils;
+import org.qubership.integration.platform.sessions.dto.SessionFacetsResponse;
+import org.qubership.integration.platform.sessions.dto.SessionSearchResponse;
+import org.qubership.integration.platform.sessions.dto.filter.FilterCondition;
+import org.qubership.integration.platform.sessions.dto.filter.FilterFeature;
+import org.qubership.integration.platform.sessions.dto.filter.FilterRequest;
+import org.qubership.integration.platform.sessions.dto.filter.FilterRequestAndSearchDTO;
+import org.qubership.integration.platform.sessions.exception.SearchException;
+import org.qubership.integration.platform.sessions.properties.sessions.QueryCacheProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Short-living cache of session list and facets results. Requests are keyed by their normalized form,
+ * so equal filters written differently share an entry, and concurrent misses of the same key
+ * wait for a single load. Cached results are shared by all callers and must not be modified.
+ */
+@Component
+public class SessionQueryCache {
+    private static final String SESSIONS_CACHE_NAME = "sessions-list";
+    private static final String FACETS_CACHE_NAME = "sessions-facets";
+    private static final String VALUES_SEPARATOR = ",";
+
+    private final Cache<QueryKey, SessionSearchResponse> sessionsCache;
+    private final Cache<QueryKey, SessionFacetsResponse> facetsCache;
+    private final long timeGranularityMs;
+
+    @Autowired
+    public SessionQueryCache(SessionsProperties sessionsProperties, MeterRegistry meterRegistry) {
+        QueryCacheProperties properties = sessionsProperties.queryCache();
+        this.sessionsCache = buildCache(properties.ttl(), properties.maxSize());
+        this.facetsCache = buildCache(sessionsProperties.facets().cacheTtl(), properties.maxSize());
+        this.timeGranularityMs = Math.max(1, properties.timeGranularity().toMillis());
+        GuavaCacheMetrics.monitor(meterRegistry, sessionsCache, SESSIONS_CACHE_NAME);
+        GuavaCacheMetrics.monitor(meterRegistry, facetsCache, FACETS_CACHE_NAME);
+    }
+
+    public SessionSearchResponse getSessions(QueryKey key, Supplier<SessionSearchResponse> loader) {
+        return get(sessionsCache, key, loader);
+    }
+
+    public SessionFacetsResponse getFacets(QueryKey key, Supplier<SessionFacetsResponse> loader) {
+        return get(facetsCache, key, loader);
+    }
+
+    public void invalidateAll() {
+        sessionsCache.invalidateAll();
+        facetsCache.invalidateAll();
+    }
+
+    /**
+     * Brings filters to a canonical form: filters are sorted, lists of values are trimmed and sorted,
+     * time bounds are widened to the configured granularity.
+     */
+    public FilterRequestAndSearchDTO normalize(FilterRequestAndSearchDTO filterAndSearch) {
+        List<FilterRequest> filters = Optional.ofNullable(filterAndSearch.getFilterRequestList())
+                .orElse(Collections.emptyList()).stream()
+                .map(this::normalize)
+                .sorted(Comparator.comparing(FilterRequest::getFeature, Comparator.nullsFirst(Comparator.<FilterFeature>naturalOrder()))
+                        .thenComparing(FilterRequest::getCondition, Comparator.nullsFirst(Comparator.<FilterCondition>naturalOrder()))
+                        .thenComparing(FilterRequest::getValue, Comparator.nullsFirst(Comparator.<String>naturalOrder())))
+                .toList();
+        return new FilterRequestAndSearchDTO(filters, StringUtils.trimToNull(filterAndSearch.getSearchString()));
+    }
+
+    /**
+     * Builds the cache key of normalized filters and request parameters, parameters must be value types.
+     */
+    public QueryKey toKey(FilterRequestAndSearchDTO normalized, Object... parameters) {
+        List<FilterKey> filters = normalized.getFilterRequestList().stream()
+                .map(filter -> new FilterKey(filter.getFeature(), filter.getCondition(), filter.getValue()))
+                .toList();
+        return new QueryKey(Arrays.asList(parameters), normalized.getSearchString(), filters);
+    }
+
+    private FilterRequest normalize(FilterRequest filter) {
+        String value = filter.getValue();
+        if (value == null || filter.getCondition() == null) {
+            return filter;
+        }
+        try {
+            value = switch (filter.getCondition()) {
+                case IN, NOT_IN -> Arrays.stream(value.split(VALUES_SEPARATOR))
+                        .map(String::trim)
+                        .distinct()
+                        .sorted()
+                        .collect(Collectors.joining(VALUES_SEPARATOR));
+                case IS_AFTER -> String.valueOf(floor(value));
+                case IS_BEFORE -> String.valueOf(ceil(value));
+                case IS_WITHIN -> {
+                    String[] bounds = value.split(VALUES_SEPARATOR);
+                    yield bounds.length == 2 ? floor(bounds[0]) + VALUES_SEPARATOR + ceil(bounds[1]) : value;
+                }
+                default -> value;
+            };
+        } catch (NumberFormatException e) {
+            // invalid values are left as is to be reported by the search
+        }
+        return new FilterRequest(filter.getFeature(), filter.getCondition(), value);
+    }
+
+    private long floor(String millis) {
+        long value = Long.parseLong(millis.trim());
+        return Math.floorDiv(value, timeGranularityMs) * timeGranularityMs;
+    }
+
+    private long ceil(String millis) {
+        long value = Long.parseLong(millis.trim());
+        return -Math.floorDiv(-value, timeGranularityMs) * timeGranularityMs;
+    }
+
+    private static <T> Cache<QueryKey, T> buildCache(Duration ttl, int maxSize) {
+        return CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    private static <T> T get(Cache<QueryKey, T> cache, QueryKey key, Supplier<T> loader) {
+        try {
+            return cache.get(key, loader::get);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new SearchException("Unable to load sessions", e);
+        }
+    }
+
+    public record QueryKey(List<Object> parameters, String searchString, List<FilterKey> filters) {}
+
+    public record FilterKey(FilterFeature feature, FilterCondition condition, String value) {}
+}
@@ -16,40 +16,68 @@
 
 package org.qubership.integration.platform.sessions.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.Conflicts;
 import org.opensearch.client.opensearch._types.FieldSort;
 import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.OpenSearchException;
 import org.opensearch.client.opensearch._types.SortOptions;
 import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.aggregations.Aggregate;
+import org.opensearch.client.opensearch._types.aggregations.Aggregation;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+import org.opensearch.client.opensearch._types.aggregations.CompositeBucket;
 import org.opensearch.client.opensearch._types.query_dsl.*;
 import org.opensearch.client.opensearch.core.*;
+import org.opensearch.client.opensearch.core.get.GetResult;
+import org.opensearch.client.opensearch.core.mget.MultiGetResponseItem;
+import org.opensearch.client.opensearch.core.pit.CreatePitRequest;
+import org.opensearch.client.opensearch.core.pit.DeletePitRequest;
 import org.opensearch.client.opensearch.core.search.FieldCollapse;
 import org.opensearch.client.opensearch.core.search.Hit;
 import org.opensearch.client.opensearch.core.search.InnerHits;
 import org.opensearch.client.opensearch.core.search.InnerHitsResult;
+import org.opensearch.client.opensearch.core.search.Pit;
+import org.opensearch.client.opensearch.core.search.SourceConfig;
+import org.opensearch.client.opensearch.core.search.TotalHits;
+import org.opensearch.client.opensearch.core.search.TrackHits;
 import org.opensearch.client.transport.httpclient5.ApacheHttpClient5Options;
 import org.opensearch.client.transport.httpclient5.HttpAsyncResponseConsumerFactory;
+import org.qubership.integration.platform.sessions.dto.ChainSessionsMatched;
+import org.qubership.integration.platform.sessions.dto.DeleteChainsResponse;
+import org.qubership.integration.platform.sessions.dto.DeleteTaskResponse;
+import org.qubership.integration.platform.sessions.dto.FacetBucket;
 import org.qubership.integration.platform.sessions.dto.Session;
 import org.qubership.integration.platform.sessions.dto.SessionElement;
+import org.qubership.integration.platform.sessions.dto.SessionFacetsResponse;
 import org.qubership.integration.platform.sessions.dto.SessionSearchResponse;
 import org.qubership.integration.platform.sessions.dto.filter.FilterCondition;
+import org.qubership.integration.platform.sessions.dto.filter.FilterFeature;
 import org.qubership.integration.platform.sessions.dto.filter.FilterRequest;
 import org.qubership.integration.platform.sessions.dto.filter.FilterRequestAndSearchDTO;
 import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
 import org.qubership.integration.platform.sessions.exception.SearchException;
 import org.qubership.integration.platform.sessions.mapper.SessionAggregateMapper;
 import org.qubership.integration.platform.sessions.mapper.SessionElementMapper;
 import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings;
 import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import static java.util.Objects.isNull;
 
@@ -66,7 +94,8 @@ public class SessionService {
     private static final String AGGREGATION_COLUMN = "sessionId";
     private static final List<String> SESSION_OPENSEARCH_FIELDS = Arrays.asList("sessionId", "sessionStarted", "sessionFinished",
             "sessionDuration", "sessionExecutionStatus", "chainId", "chainName", "engineAddress", "loggingLevel");
-    private static final int SCROLL_WINDOW = 300;
+    public static final int SCROLL_WINDOW = 300;
+    private static final int EXISTING_IDS_CHUNK_SIZE = 1000;
     private static final String ELEMENT_EXECUTION_ERROR_MESSAGE = "Error during element execution";
     public static final String SESSION_ID_KEY = "sessionId";
     public static final String EXTERNAL_SESSION_ID_KEY = "externalSessionId";
@@ -75,28 +104,66 @@ public class SessionService {
     private static final String ID_KEY = "id";
     private static final String SESSION_DURATION_KEY = "sessionDuration";
     private static final String INNER_HIT_NAME = "most_recent";
+    private static final String EXISTING_SESSIONS_AGG = "existing_sessions";
+    private static final String CHAIN_ID_KEY = "chainId";
+    private static final String CHAINS_AGG = "chains";
+    // Counts are exact below the threshold, which is the maximum OpenSearch allows
+    private static final int CARDINALITY_PRECISION_THRESHOLD = 40_000;
+    private static final String MATCHING_SESSIONS_AGG = "matching_sessions";
+    private static final String SESSION_STARTED_KEY = "sessionStarted";
+    private static final String START_TIME_HISTOGRAM_AGG = "start_time_histogram";
+    private static final String SESSIONS_COUNT_AGG = "sessions_count";
+    private static final String EPOCH_MILLIS_FORMAT = "epoch_millis";
+    // Units supported by fixed_interval of date histogram
+    private static final Pattern FIXED_INTERVAL_PATTERN = Pattern.compile("[1-9]\\d*(ms|s|m|h|d)");
+    private static final Map<FilterFeature, String> FACET_FIELDS = new EnumMap<>(Map.of(
+            FilterFeature.ENGINE, "engineAddress",
+            FilterFeature.STATUS, "sessionExecutionStatus",
+            FilterFeature.CHAIN_NAME, "chainName"));
 
     private final String indexName;
+    private final String pointInTimeKeepAlive;
 
+    private final ObjectMapper objectMapper;
     private final SessionAggregateMapper sessionMapper;
     private final SessionElementMapper sessionElementMapper;
     private final OpenSearchClientSupplier openSearchClientSupplier;
+    private final SessionSummaryService sessionSummaryService;
+    private final SessionCache sessionCache;
+    private final DeleteTaskService deleteTaskService;
+    private final ElementsIndexManager elementsIndexManager;
 
     private final HttpAsyncResponseConsumerFactory consumerFactory;
+    private final SessionQueryCache sessionQueryCache;
+    private final int facetsMaxBuckets;
 
     @Autowired
     public SessionService(SessionAggregateMapper sessionMapper,
                           OpenSearchClientSupplier openSearchClientSupplier,
-                          ObjectMapper mapper,
+                          ObjectMapper objectMapper,
                           SessionElementMapper sessionElementMapper,
-                          OpenSearchProperties openSearchProperties) {
+                          OpenSearchProperties openSearchProperties,
+                          SessionSummaryService sessionSummaryService,
+                          SessionCache sessionCache,
+                          SessionsProperties sessionsProperties,
+                          SessionQueryCache sessionQueryCache,
+                          DeleteTaskService deleteTaskService,
+                          ElementsIndexManager elementsIndexManager) {
         this.indexName = openSearchProperties.index().elements().name();
+        this.pointInTimeKeepAlive = openSearchProperties.session().pointInTimeKeepAlive();
+        this.objectMapper = objectMapper;
         this.sessionMapper = sessionMapper;
         this.openSearchClientSupplier = openSearchClientSupplier;
         this.sessionElementMapper = sessionElementMapper;
+        this.sessionSummaryService = sessionSummaryService;
+        this.sessionCache = sessionCache;
+        this.deleteTaskService = deleteTaskService;
+        this.elementsIndexManager = elementsIndexManager;
 
         this.consumerFactory = new HttpAsyncResponseConsumerFactory.HeapBufferedResponseConsumerFactory(
             openSearchProperties.session().defaultBufferLimit());
+        this.sessionQueryCache = sessionQueryCache;
+        this.facetsMaxBuckets = sessionsProperties.facets().maxBuckets();
     }
 
     public Session findByExternalSessionId(String externalSessionId, boolean includeElements) {
@@ -104,35 +171,287 @@ public class SessionService {
     }
 
     public Session findById(String id, String idKey, boolean light, boolean includeElements) {
-        List<SessionElementElastic> elements = new ArrayList<>();
+        if (!SESSION_ID_KEY.equals(idKey)) {
+            return loadSession(id, idKey, light, includeElements);
+        }
 
-        List<SessionElementElastic> singleResponse;
-        int i = 0;
-        do {
-            singleResponse = getSearchResponse(getScrollSearchRequest(id, idKey, light, i * SCROLL_WINDOW));
-            elements.addAll(singleResponse);
-            i++;
-        } while (!singleResponse.isEmpty());
+        SessionCache.Key key = new SessionCache.Key(id, light, includeElements);
+        Session session = sessionCache.get(key);
+        if (session == null) {
+            session = loadSession(id, idKey, light, includeElements);
+            sessionCache.putIfFinished(key, session);
+        }
+        return session;
+    }
+
+    private Session loadSession(String id, String idKey, boolean light, boolean includeElements) {
+        Query query = new TermQuery.Builder().field(idKey).value(FieldValue.of(id)).build().toQuery();
+        Map<String, SessionElementElastic> elements = new LinkedHashMap<>();
+        scanSessionElements(query, light, page -> page.forEach(element -> putLatest(elements, element)));
+
+        return sessionMapper.toSession(new ArrayList<>(elements.values()), includeElements);
+    }
+
+    /**
+     * Finds several sessions by ids, fetching elements of all sessions missing in the cache
+     * with a single terms query scan. Sessions are returned in the order of requested ids, unknown ids are skipped.
+     */
+    public List<Session> findByIds(List<String> sessionIds, boolean includeElements) {
+        Map<String, Session> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String sessionId : new LinkedHashSet<>(sessionIds)) {
+            Session session = sessionCache.get(new SessionCache.Key(sessionId, false, includeElements));
+            if (session != null) {
+                found.put(sessionId, session);
+            } else {
+                missing.add(sessionId);
+            }
+        }
 
-        return sessionMapper.toSession(elements, includeElements);
+        for (int from = 0; from < missing.size(); from += EXISTING_IDS_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(from, Math.min(from + EXISTING_IDS_CHUNK_SIZE, missing.size()));
+            Query query = new TermsQuery.Builder()
+                    .field(SESSION_ID_KEY)
+                    .terms(new TermsQueryField.Builder().value(chunk.stream().map(FieldValue::of).toList()).build())
+                    .build().toQuery();
+            Map<String, Map<String, SessionElementElastic>> elementsBySession = new HashMap<>();
+            scanSessionElements(query, false, page -> page.forEach(element -> putLatest(
+                    elementsBySession.computeIfAbsent(element.getSessionId(), id -> new LinkedHashMap<>()), element)));
+
+            elementsBySession.forEach((sessionId, elements) -> {
+                Session session = sessionMapper.toSession(new ArrayList<>(elements.values()), includeElements);
+                sessionCache.putIfFinished(new SessionCache.Key(sessionId, false, includeElements), session);
+                found.put(sessionId, session);
+            });
+        }
+
+        return sessionIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
-    private SearchRequest getScrollSearchRequest(String id, String idKey, boolean light, int scrollWindow) {
+    /**
+     * Iterates over all session elements matching the query in (started, id) order using
+     * a point-in-time and search_after, so every page costs the same regardless of its position.
+     * Elements duplicated across indices are passed to the consumer as is.
+     */
+    public void scanSessionElements(Query query, boolean light, Consumer<List<SessionElementElastic>> pageConsumer) {
+        scanSessionElements(query, light ? getLightSourceConfig() : null, pageConsumer);
+    }
+
+    /**
+     * Same as {@link #scanSessionElements(Query, boolean, Consumer)}, fetching only source fields
+     * allowed by the given config.
+     */
+    public void scanSessionElements(Query query, SourceConfig source, Consumer<List<SessionElementElastic>> pageConsumer) {
+        String pitId = createPointInTime(openSearchClientSupplier.normalize(indexName));
+        try {
+            List<String> searchAfter = null;
+            List<Hit<SessionElementElastic>> hits;
+            do {
+                SearchResponse<SessionElementElastic> response = search(getPointInTimeSearchRequest(query, source, pitId, searchAfter));
+                hits = response.hits().hits();
+                if (response.pitId() != null) {
+                    pitId = response.pitId();
+                }
+                if (!hits.isEmpty()) {
+                    pageConsumer.accept(hits.stream().map(Hit::source).filter(Objects::nonNull).toList());
+                    searchAfter = hits.get(hits.size() - 1).sort();
+                }
+            } while (!hits.isEmpty());
+        } finally {
+            deletePointInTime(pitId);
+        }
+    }
+
+    /**
+     * Iterates ids of all sessions matching the filter, page by page. Filters are served by a point in time
+     * over the sessions index ordered by start time, full-text search by a composite aggregation over elements.
+     * Filters go to elements too until summaries of all sessions are built.
+     */
+    public void scanSessionIds(String chainId, FilterRequestAndSearchDTO filterRequest, Consumer<List<String>> pageConsumer) {
+        BoolQuery.Builder queryBuilder = buildSessionsQuery(chainId, filterRequest);
+        if (StringUtils.isNotEmpty(filterRequest.getSearchString()) || !sessionSummaryService.isBackfillCompleted()) {
+            addSearchStringQuery(queryBuilder, filterRequest.getSearchString());
+            scanSessionIdsByElements(queryBuilder.build().toQuery(), pageConsumer);
+        } else {
+            scanSessionIdsBySummaries(queryBuilder.build().toQuery(), pageConsumer);
+        }
+    }
+
+    private void scanSessionIdsBySummaries(Query query, Consumer<List<String>> pageConsumer) {
+        String pitId = createPointInTime(sessionSummaryService.getIndexName());
+        try {
+            List<String> searchAfter = null;
+            List<Hit<SessionSummaryElastic>> hits;
+            do {
+                SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
+                        .pit(new Pit.Builder().id(pitId).keepAlive(pointInTimeKeepAlive).build())
+                        .size(SCROLL_WINDOW)
+                        .trackTotalHits(new TrackHits.Builder().enabled(false).build())
+                        .query(query)
+                        .source(source -> source.filter(filter -> filter.includes(SESSION_ID_KEY)))
+                        .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(SESSION_STARTED_KEY).order(SortOrder.Asc).build()).build())
+                        .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(SESSION_ID_KEY).order(SortOrder.Asc).build()).build());
+                if (searchAfter != null) {
+                    requestBuilder.searchAfter(searchAfter);
+                }
+                SearchResponse<SessionSummaryElastic> response;
+                try {
+                    response = openSearchClientSupplier.getClient().search(requestBuilder.build(), SessionSummaryElastic.class);
+                } catch (IOException e) {
+                    throw new SearchException(ELEMENT_EXECUTION_ERROR_MESSAGE, e);
+                }
+                hits = response.hits().hits();
+                if (response.pitId() != null) {
+                    pitId = response.pitId();
+                }
+                if (!hits.isEmpty()) {
+                    pageConsumer.accept(hits.stream()
+                            .map(Hit::source)
+                            .filter(Objects::nonNull)
+                            .map(SessionSummaryElastic::getSessionId)
+                            .toList());
+                    searchAfter = hits.get(hits.size() - 1).sort();
+                }
+            } while (!hits.isEmpty());
+        } finally {
+            deletePointInTime(pitId);
+        }
+    }
+
+    private void scanSessionIdsByElements(Query query, Consumer<List<String>> pageConsumer) {
+        String after = null;
+        do {
+            String afterKey = after;
+            SearchRequest request = new SearchRequest.Builder()
+                    .index(openSearchClientSupplier.normalize(indexName))
+                    .size(0)
+                    .query(query)
+                    .aggregations(MATCHING_SESSIONS_AGG, Aggregation.of(aggregation -> aggregation.composite(composite -> {
+                        composite.size(SCROLL_WINDOW)
+                                .sources(Map.of(SESSION_ID_KEY, CompositeAggregationSource.of(source ->
+                                        source.terms(terms -> terms.field(SESSION_ID_KEY)))));
+                        if (afterKey != null) {
+                            composite.after(Map.of(SESSION_ID_KEY, afterKey));
+                        }
+                        return composite;
+                    })))
+                    .build();
+            CompositeAggregate matching = search(request).aggregations().get(MATCHING_SESSIONS_AGG).composite();
+            List<String> sessionIds = matching.buckets().array().stream()
+                    .map(CompositeBucket::key)
+                    .map(key -> key.get(SESSION_ID_KEY).to(String.class))
+                    .toList();
+            if (!sessionIds.isEmpty()) {
+                pageConsumer.accept(sessionIds);
+            }
+            after = sessionIds.size() < SCROLL_WINDOW || matching.afterKey() == null
+                    ? null
+                    : matching.afterKey().get(SESSION_ID_KEY).to(String.class);
+        } while (after != null);
+    }
+
+    private SearchRequest getPointInTimeSearchRequest(Query query, SourceConfig source, String pitId, List<String> searchAfter) {
         SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
-                .index(openSearchClientSupplier.normalize(indexName))
+                .pit(new Pit.Builder().id(pitId).keepAlive(pointInTimeKeepAlive).build())
                 .size(SCROLL_WINDOW)
-                .query(new TermQuery.Builder().field(idKey).value(FieldValue.of(id)).build().toQuery())
-                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(STARTED_KEY).order(SortOrder.Asc).build()).build());
-        configureSessionElementsCollapseBy(requestBuilder, ID_KEY);
+                .trackTotalHits(new TrackHits.Builder().enabled(false).build())
+                .query(query)
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(STARTED_KEY).order(SortOrder.Asc).build()).build())
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(ID_KEY).order(SortOrder.Asc).build()).build());
 
-        if (light) {
-            requestBuilder.source(builder -> builder.filter(builder1 -> builder1.excludes(Arrays.asList(EXCLUDE_FIELD_IN_SESSIONS))));
+        if (source != null) {
+            requestBuilder.source(source);
+        }
+        if (searchAfter != null) {
+            requestBuilder.searchAfter(searchAfter);
         }
-        requestBuilder.from(scrollWindow);
         return requestBuilder.build();
     }
 
+    private static SourceConfig getLightSourceConfig() {
+        return new SourceConfig.Builder()
+                .filter(builder -> builder.excludes(Arrays.asList(EXCLUDE_FIELD_IN_SESSIONS)))
+                .build();
+    }
+
+    /**
+     * Keeps the most recent copy of an element, the same one collapse by id with
+     * {@link #INNER_HIT_NAME} inner hits would have returned.
+     */
+    private static void putLatest(Map<String, SessionElementElastic> elements, SessionElementElastic element) {
+        elements.merge(element.getId(), element,
+                (existing, candidate) -> candidate.getSessionDuration() > existing.getSessionDuration() ? candidate : existing);
+    }
+
+    private String createPointInTime(String index) {
+        CreatePitRequest request = new CreatePitRequest.Builder()
+                .targetIndexes(index)
+                .keepAlive(new Time.Builder().time(pointInTimeKeepAlive).build())
+                .build();
+        try {
+            return openSearchClientSupplier.getClient().createPit(request).pitId();
+        } catch (IOException e) {
+            throw new SearchException("Unable to create point in time for OpenSearch search", e);
+        }
+    }
+
+    private void deletePointInTime(String pitId) {
+        try {
+            openSearchClientSupplier.getClient().deletePit(new DeletePitRequest.Builder().pitId(pitId).build());
+        } catch (Exception e) {
+            log.warn("Unable to delete point in time {}, it will expire after {}", pitId, pointInTimeKeepAlive, e);
+        }
+    }
+
+    /**
+     * Checks whether any element of the session exists, stopping on the first matching document.
+     */
+    public boolean existsById(String sessionId) {
+        SearchRequest request = new SearchRequest.Builder()
+                .index(openSearchClientSupplier.normalize(indexName))
+                .size(0)
+                .terminateAfter(1L)
+                .query(new TermQuery.Builder().field(SESSION_ID_KEY).value(FieldValue.of(sessionId)).build().toQuery())
+                .build();
+        TotalHits total = search(request).hits().total();
+        return total != null && total.value() > 0;
+    }
+
+    /**
+     * Checks existence of several sessions with one terms aggregation per {@link #EXISTING_IDS_CHUNK_SIZE} ids.
+     *
+     * @return ids of the sessions which exist
+     */
+    public Set<String> findExistingIds(Collection<String> sessionIds) {
+        List<String> ids = sessionIds.stream().distinct().toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += EXISTING_IDS_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + EXISTING_IDS_CHUNK_SIZE, ids.size()));
+            SearchRequest request = new SearchRequest.Builder()
+                    .index(openSearchClientSupplier.normalize(indexName))
+                    .size(0)
+                    .query(new TermsQuery.Builder()
+                            .field(SESSION_ID_KEY)
+                            .terms(new TermsQueryField.Builder().value(chunk.stream().map(FieldValue::of).toList()).build())
+                            .build().toQuery())
+                    .aggregations(EXISTING_SESSIONS_AGG, Aggregation.of(aggregation -> aggregation
+                            .terms(terms -> terms.field(SESSION_ID_KEY).size(chunk.size()))))
+                    .build();
+            search(request).aggregations().get(EXISTING_SESSIONS_AGG).sterms().buckets().array()
+                    .forEach(bucket -> existing.add(bucket.key()));
+        }
+        return existing;
+    }
+
     public SessionElement getElementById(String elementId) {
+        SessionElementElastic element = getDocumentById(elementId);
+        if (element != null) {
+            return sessionElementMapper.toSessionElement(element);
+        }
+
         SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
                 .index(openSearchClientSupplier.normalize(indexName))
                 .size(SCROLL_WINDOW)
@@ -145,69 +464,456 @@ public class SessionService {
         return response.stream().findFirst().map(sessionElementMapper::toSessionElement).orElse(null);
     }
 
+    /**
+     * Finds elements of the session by ids with a single multi-get, searching only for the ones the multi-get missed.
+     * Elements are returned in the order of requested ids, unknown ids and elements of other sessions are skipped.
+     */
+    public List<SessionElement> getElementsByIds(String sessionId, List<String> elementIds) {
+        Map<String, SessionElementElastic> found = new HashMap<>();
+        getDocumentsByIds(elementIds).stream()
+                .filter(element -> sessionId.equals(element.getSessionId()))
+                .forEach(element -> found.put(element.getId(), element));
+
+        List<String> missing = elementIds.stream().filter(id -> !found.containsKey(id)).distinct().toList();
+        for (int from = 0; from < missing.size(); from += SCROLL_WINDOW) {
+            findElementsByIds(sessionId, missing.subList(from, Math.min(from + SCROLL_WINDOW, missing.size())), false)
+                    .forEach(element -> found.put(element.getId(), element));
+        }
+
+        return elementIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .map(sessionElementMapper::toSessionElement)
+                .toList();
+    }
+
+    /**
+     * Realtime get of the element document, which is indexed with element id as document id.
+     * Returns null if the document is not found or the index alias can't serve gets, e.g. when it points to several indices.
+     */
+    private SessionElementElastic getDocumentById(String elementId) {
+        GetRequest request = new GetRequest.Builder()
+                .index(openSearchClientSupplier.normalize(indexName))
+                .id(elementId)
+                .realtime(true)
+                .build();
+        try {
+            GetResponse<SessionElementElastic> response = openSearchClientSupplier.getClient().get(request, SessionElementElastic.class);
+            return response.found() ? response.source() : null;
+        } catch (IOException | OpenSearchException e) {
+            log.debug("Unable to get session element {} by document id, falling back to search: {}", elementId, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<SessionElementElastic> getDocumentsByIds(List<String> elementIds) {
+        if (elementIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        MgetRequest request = new MgetRequest.Builder()
+                .index(openSearchClientSupplier.normalize(indexName))
+                .ids(elementIds)
+                .realtime(true)
+                .build();
+        try {
+            MgetResponse<SessionElementElastic> response = openSearchClientSupplier.getClient().mget(request, SessionElementElastic.class);
+            return response.docs().stream()
+                    .filter(MultiGetResponseItem::isResult)
+                    .map(MultiGetResponseItem::result)
+                    .filter(GetResult::found)
+                    .map(GetResult::source)
+                    .filter(Objects::nonNull)
+                    .toList();
+        } catch (IOException | OpenSearchException e) {
+            log.debug("Unable to get session elements by document ids, falling back to search: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Finds the most recent copies of the given session elements, at most {@link #SCROLL_WINDOW} per call.
+     */
+    public List<SessionElementElastic> findElementsByIds(String sessionId, Collection<String> elementIds, boolean light) {
+        BoolQuery.Builder queryBuilder = new BoolQuery.Builder()
+                .filter(new TermsQuery.Builder()
+                        .field(ID_KEY)
+                        .terms(new TermsQueryField.Builder().value(elementIds.stream().map(FieldValue::of).toList()).build())
+                        .build().toQuery());
+        if (sessionId != null) {
+            queryBuilder.filter(new TermQuery.Builder().field(SESSION_ID_KEY).value(FieldValue.of(sessionId)).build().toQuery());
+        }
+        SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
+                .index(openSearchClientSupplier.normalize(indexName))
+                .size(elementIds.size())
+                .query(queryBuilder.build().toQuery());
+        SourceConfig source = light ? getLightSourceConfig() : null;
+        if (source != null) {
+            requestBuilder.source(source);
+        }
+        configureSessionElementsCollapseBy(requestBuilder, ID_KEY, source);
+
+        return getSearchResponse(requestBuilder.build());
+    }
+
     public void deleteBySessionId(String sessionId) {
         deleteByField(SESSION_ID_KEY, sessionId, false);
+        sessionCache.invalidateBySessionId(sessionId);
+        sessionQueryCache.invalidateAll();
     }
 
     public void deleteByChainId(String chainId) {
-        deleteByField("chainId", chainId, true);
+        deleteByField(CHAIN_ID_KEY, chainId, true);
+        sessionCache.invalidateByChainId(chainId);
+        sessionQueryCache.invalidateAll();
     }
 
     public void deleteAllSessions() {
         DeleteByQueryRequest request = new DeleteByQueryRequest.Builder()
-                .index(openSearchClientSupplier.normalize(indexName))
+                .index(getIndicesToDelete())
+                .ignoreUnavailable(true)
                 .query(new MatchAllQuery.Builder().build().toQuery())
                 .refresh(true)
                 .build();
         delete(request);
+        sessionCache.invalidateAll();
+        sessionQueryCache.invalidateAll();
+    }
+
+    /**
+     * Starts delete of the chain sessions in background, indices are refreshed once the delete completes.
+     *
+     * @return id of the delete task
+     */
+    public String deleteByChainIdAsync(String chainId) {
+        Query query = new TermQuery.Builder().field(CHAIN_ID_KEY).value(FieldValue.of(chainId)).build().toQuery();
+        return submitDelete(query, () -> sessionCache.invalidateByChainId(chainId));
+    }
+
+    /**
+     * Starts delete of all sessions in background, indices are refreshed once the delete completes.
+     *
+     * @return id of the delete task
+     */
+    public String deleteAllSessionsAsync() {
+        return submitDelete(new MatchAllQuery.Builder().build().toQuery(), sessionCache::invalidateAll);
+    }
+
+    /**
+     * Starts a background delete per query, throttled to the given rate. Caches are dropped
+     * once all the deletes complete, before the callback is run.
+     *
+     * @return ids of the delete tasks
+     */
+    public List<String> deleteByQueriesAsync(List<Query> queries, Long requestsPerSecond,
+                                             Consumer<List<DeleteTaskResponse>> onComplete) {
+        return deleteTaskService.submit(getIndicesToDelete(), queries, requestsPerSecond, results -> {
+            sessionCache.invalidateAll();
+            sessionQueryCache.invalidateAll();
+            onComplete.accept(results);
+        });
+    }
+
+    private String submitDelete(Query query, Runnable invalidateSessions) {
+        // Caches are dropped once more on completion, as they may pick up sessions the task has not reached yet
+        invalidateSessions.run();
+        sessionQueryCache.invalidateAll();
+        return deleteTaskService.submit(getIndicesToDelete(), query, null, results -> {
+            invalidateSessions.run();
+            sessionQueryCache.invalidateAll();
+        });
     }
 
     public void deleteByField(String fieldName, String value, boolean refresh) {
         DeleteByQueryRequest request = new DeleteByQueryRequest.Builder()
-                .index(openSearchClientSupplier.normalize(indexName))
+                .index(getIndicesToDelete())
+                .ignoreUnavailable(true)
                 .query(new TermQuery.Builder().field(fieldName).value(FieldValue.of(value)).build().toQuery())
                 .refresh(refresh)
                 .build();
         delete(request);
     }
 
-    public void deleteAllByChainIds(List<String> chainIds) {
-        chainIds.forEach(this::deleteByChainId);
+    /**
+     * Deletes session elements by their ids, e.g. elements written by a rolled back import, and rebuilds
+     * summaries of their sessions from the remaining elements. Summaries of sessions left without elements are removed.
+     */
+    public void deleteElementsByIds(Collection<String> sessionIds, List<String> elementIds) {
+        if (elementIds.isEmpty()) {
+            sessionSummaryService.rebuildSummaries(sessionIds);
+            return;
+        }
+        try {
+            // Delete by query only sees documents made searchable by a refresh
+            openSearchClientSupplier.getClient().indices()
+                    .refresh(request -> request.index(openSearchClientSupplier.normalize(indexName)));
+        } catch (IOException e) {
+            throw new SearchException("Unable to perform delete from OpenSearch", e);
+        }
+        for (int from = 0; from < elementIds.size(); from += EXISTING_IDS_CHUNK_SIZE) {
+            List<String> chunk = elementIds.subList(from, Math.min(from + EXISTING_IDS_CHUNK_SIZE, elementIds.size()));
+            DeleteByQueryRequest request = new DeleteByQueryRequest.Builder()
+                    .index(openSearchClientSupplier.normalize(indexName))
+                    .query(new TermsQuery.Builder()
+                            .field(ID_KEY)
+                            .terms(new TermsQueryField.Builder().value(chunk.stream().map(FieldValue::of).toList()).build())
+                            .build().toQuery())
+                    .refresh(true)
+                    .build();
+            delete(request);
+        }
+        sessionSummaryService.rebuildSummaries(sessionIds);
+    }
+
+    /**
+     * Deletes sessions of several chains with one terms query per {@link #EXISTING_IDS_CHUNK_SIZE} chains,
+     * refreshing indices once after all of them. Sessions of every chain are counted before the delete
+     * from the elements index, without a refresh, so the counts are estimates of what the delete matches:
+     * elements not yet refreshed or written meanwhile are missed, sessions are counted by cardinality.
+     */
+    public DeleteChainsResponse deleteAllByChainIds(List<String> chainIds, boolean async) {
+        List<String> ids = chainIds.stream().distinct().toList();
+        List<ChainSessionsMatched> counts = new ArrayList<>();
+        List<Query> queries = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += EXISTING_IDS_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + EXISTING_IDS_CHUNK_SIZE, ids.size()));
+            Query query = new TermsQuery.Builder()
+                    .field(CHAIN_ID_KEY)
+                    .terms(new TermsQueryField.Builder().value(chunk.stream().map(FieldValue::of).toList()).build())
+                    .build().toQuery();
+            counts.addAll(countChainSessions(query, chunk));
+            queries.add(query);
+        }
+
+        Runnable invalidateCaches = () -> {
+            ids.forEach(sessionCache::invalidateByChainId);
+            sessionQueryCache.invalidateAll();
+        };
+        if (async) {
+            invalidateCaches.run();
+            List<String> taskIds = deleteTaskService.submit(getIndicesToDelete(), queries, null, results -> invalidateCaches.run());
+            return new DeleteChainsResponse(counts, taskIds);
+        }
+        for (Query query : queries) {
+            delete(new DeleteByQueryRequest.Builder()
+                    .index(getIndicesToDelete())
+                    .ignoreUnavailable(true)
+                    .query(query)
+                    .conflicts(Conflicts.Proceed)
+                    .build());
+        }
+        refresh(getIndicesToDelete());
+        invalidateCaches.run();
+        return new DeleteChainsResponse(counts, Collections.emptyList());
+    }
+
+    private List<ChainSessionsMatched> countChainSessions(Query query, List<String> chainIds) {
+        SearchRequest request = new SearchRequest.Builder()
+                .index(openSearchClientSupplier.normalize(indexName))
+                .size(0)
+                .query(query)
+                .aggregations(CHAINS_AGG, Aggregation.of(aggregation -> aggregation
+                        .terms(terms -> terms.field(CHAIN_ID_KEY).size(chainIds.size()))
+                        .aggregations(SESSIONS_COUNT_AGG, Aggregation.of(sessions -> sessions
+                                .cardinality(cardinality -> cardinality.field(SESSION_ID_KEY).precisionThreshold(CARDINALITY_PRECISION_THRESHOLD))))))
+                .build();
+        Map<String, ChainSessionsMatched> counts = new HashMap<>();
+        search(request).aggregations().get(CHAINS_AGG).sterms().buckets().array().forEach(bucket ->
+                counts.put(bucket.key(), new ChainSessionsMatched(bucket.key(),
+                        bucket.aggregations().get(SESSIONS_COUNT_AGG).cardinality().value(),
+                        bucket.docCount())));
+        return chainIds.stream()
+                .map(chainId -> counts.getOrDefault(chainId, new ChainSessionsMatched(chainId, 0, 0)))
+                .toList();
     }
 
+    private void refresh(List<String> indices) {
+        try {
+            openSearchClientSupplier.getClient().indices()
+                    .refresh(request -> request.index(indices).ignoreUnavailable(true));
+        } catch (IOException e) {
+            throw new SearchException("Unable to perform delete from OpenSearch", e);
+        }
+    }
+
+    /**
+     * Finds sessions page. If cursor from the previous page is given, the page starts right after it
+     * and offset is used only to count sessions in the response.
+     */
     public SessionSearchResponse getSessions(String chainId,
                                              int offset,
                                              int limit,
                                              String sortColumn,
+                                             String cursor,
                                              FilterRequestAndSearchDTO filterRequest) {
         if (offset < 0 || limit < 1)
-            return new SessionSearchResponse(0, Collections.emptyList());
+            return new SessionSearchResponse(0, Collections.emptyList(), null);
 
         if (!SESSION_OPENSEARCH_FIELDS.contains(sortColumn))
             throw new IllegalArgumentException("Can't sort results on this column. Valid columns are: " +
                     StringUtils.join(SESSION_OPENSEARCH_FIELDS, ", "));
 
+        FilterRequestAndSearchDTO normalized = sessionQueryCache.normalize(filterRequest);
+        SessionQueryCache.QueryKey key = sessionQueryCache.toKey(normalized, chainId, offset, limit, sortColumn, cursor);
+        return sessionQueryCache.getSessions(key, () -> loadSessions(chainId, offset, limit, sortColumn, cursor, normalized));
+    }
+
+    private SessionSearchResponse loadSessions(String chainId,
+                                               int offset,
+                                               int limit,
+                                               String sortColumn,
+                                               String cursor,
+                                               FilterRequestAndSearchDTO filterRequest) {
+        boolean fullTextSearch = StringUtils.isNotEmpty(filterRequest.getSearchString());
+        if (!fullTextSearch && sessionSummaryService.isBackfillCompleted()) {
+            List<String> searchAfter = StringUtils.isEmpty(cursor) ? null : decodeCursor(cursor, sortColumn);
+            List<Hit<SessionSummaryElastic>> hits = executeSessionSummariesQuery(chainId, offset, limit, sortColumn,
+                    searchAfter, filterRequest);
+            List<Session> sessions = sessionMapper.toPreviewFromSummaries(
+                    hits.stream().map(Hit::source).filter(Objects::nonNull).toList());
+            String nextCursor = hits.size() < limit ? null : encodeCursor(sortColumn, hits.get(hits.size() - 1).sort());
+            return new SessionSearchResponse(offset + sessions.size(), sessions, nextCursor);
+        }
+
+        // Full-text search runs over element payloads, which are not present in the sessions index,
+        // and the sessions index misses older sessions until its backfill completes.
+        // Collapsed search can't continue after a cursor unless sorted by the collapse field only.
+        if (StringUtils.isNotEmpty(cursor)) {
+            throw new SearchException(fullTextSearch
+                    ? "Cursor can't be used together with search string, use offset instead"
+                    : "Cursor can't be used while the sessions index is being built, use offset instead");
+        }
         Map<String, SessionElementElastic> resultSessions = new LinkedHashMap<>();
 
         List<SessionElementElastic> lightSessionElements = executeLightSessionElementsQuery(chainId,
                 offset, limit, sortColumn, filterRequest);
         lightSessionElements.forEach(element -> resultSessions.put(element.getSessionId(), element));
 
-        return new SessionSearchResponse(offset + resultSessions.size(), sessionMapper.toPreview(new ArrayList<>(resultSessions.values())));
+        return new SessionSearchResponse(offset + resultSessions.size(),
+                sessionMapper.toPreview(new ArrayList<>(resultSessions.values())), null);
+    }
+
+    private String encodeCursor(String sortColumn, List<String> searchAfter) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(objectMapper.writeValueAsBytes(new SessionsCursor(sortColumn, searchAfter)));
+        } catch (JsonProcessingException e) {
+            throw new SearchException("Unable to build sessions cursor", e);
+        }
+    }
+
+    private List<String> decodeCursor(String cursor, String sortColumn) {
+        SessionsCursor decoded;
+        try {
+            decoded = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), SessionsCursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SearchException("Invalid sessions cursor", e);
+        }
+        if (!sortColumn.equals(decoded.sortColumn())) {
+            throw new SearchException("Sessions cursor was issued for sorting by " + decoded.sortColumn()
+                    + " and can't be used for sorting by " + sortColumn);
+        }
+        return decoded.searchAfter();
+    }
+
+    record SessionsCursor(String sortColumn, List<String> searchAfter) {}
+
+    /**
+     * Counts sessions by values of filter columns and by start time in a single request.
+     * Results are cached for a short time, as the filter panel requests them on every change.
+     */
+    public SessionFacetsResponse getFacets(String chainId, String interval, FilterRequestAndSearchDTO filterRequest) {
+        if (interval == null || !FIXED_INTERVAL_PATTERN.matcher(interval).matches()) {
+            throw new SearchException("Invalid start time histogram interval " + interval
+                    + ", expected a positive number followed by one of ms, s, m, h, d, e.g. 30m");
+        }
+        FilterRequestAndSearchDTO normalized = sessionQueryCache.normalize(filterRequest);
+        SessionQueryCache.QueryKey key = sessionQueryCache.toKey(normalized, chainId, interval);
+        return sessionQueryCache.getFacets(key, () -> loadFacets(chainId, interval, normalized));
+    }
+
+    private SessionFacetsResponse loadFacets(String chainId, String interval, FilterRequestAndSearchDTO filterRequest) {
+        // Full-text search runs over element payloads, so facets are counted over elements then,
+        // as well as until summaries of all sessions are built
+        boolean elementsIndex = StringUtils.isNotEmpty(filterRequest.getSearchString())
+                || !sessionSummaryService.isBackfillCompleted();
+        BoolQuery.Builder queryBuilder = buildSessionsQuery(chainId, filterRequest);
+        addSearchStringQuery(queryBuilder, filterRequest.getSearchString());
+
+        Aggregation sessionsCount = Aggregation.of(aggregation -> aggregation.cardinality(cardinality -> cardinality.field(SESSION_ID_KEY)));
+        SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
+                .index(elementsIndex ? openSearchClientSupplier.normalize(indexName) : sessionSummaryService.getIndexName())
+                .size(0)
+                .query(queryBuilder.build().toQuery())
+                .aggregations(START_TIME_HISTOGRAM_AGG, Aggregation.of(aggregation -> aggregation
+                        .dateHistogram(histogram -> histogram
+                                .field(SESSION_STARTED_KEY)
+                                .fixedInterval(new Time.Builder().time(interval).build())
+                                .format(EPOCH_MILLIS_FORMAT))
+                        .aggregations(SESSIONS_COUNT_AGG, sessionsCount)));
+        FACET_FIELDS.forEach((feature, field) -> requestBuilder.aggregations(feature.name(), Aggregation.of(aggregation -> aggregation
+                .terms(terms -> terms.field(field).size(facetsMaxBuckets))
+                .aggregations(SESSIONS_COUNT_AGG, sessionsCount))));
+
+        Map<String, Aggregate> aggregations = search(requestBuilder.build()).aggregations();
+        Map<FilterFeature, List<FacetBucket>> facets = new EnumMap<>(FilterFeature.class);
+        FACET_FIELDS.keySet().forEach(feature -> facets.put(feature,
+                aggregations.get(feature.name()).sterms().buckets().array().stream()
+                        .map(bucket -> new FacetBucket(bucket.key(),
+                                bucket.aggregations().get(SESSIONS_COUNT_AGG).cardinality().value()))
+                        .toList()));
+        List<FacetBucket> startTimeHistogram = aggregations.get(START_TIME_HISTOGRAM_AGG).dateHistogram().buckets().array().stream()
+                .map(bucket -> new FacetBucket(bucket.keyAsString(),
+                        bucket.aggregations().get(SESSIONS_COUNT_AGG).cardinality().value()))
+                .toList();
+        return new SessionFacetsResponse(facets, startTimeHistogram);
     }
 
     private void configureSessionElementsCollapseBy(SearchRequest.Builder builder, String field) {
+        configureSessionElementsCollapseBy(builder, field, null);
+    }
+
+    private void configureSessionElementsCollapseBy(SearchRequest.Builder builder, String field, SourceConfig innerHitsSource) {
+        InnerHits.Builder innerHits = new InnerHits.Builder()
+                .name(INNER_HIT_NAME)
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(SESSION_DURATION_KEY).order(SortOrder.Desc).build()).build())
+                .size(1);
+        if (innerHitsSource != null) {
+            innerHits.source(innerHitsSource);
+        }
         FieldCollapse collapse = new FieldCollapse.Builder()
                 .field(field)
-                .innerHits(new InnerHits.Builder()
-                        .name(INNER_HIT_NAME)
-                        .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(SESSION_DURATION_KEY).order(SortOrder.Desc).build()).build())
-                        .size(1)
-                        .build())
+                .innerHits(innerHits.build())
                 .build();
         builder.collapse(collapse);
     }
 
+    /**
+     * Execute query for sessions summaries. Every document of the sessions index is a single session,
+     * so no collapsing is needed.
+     */
+    private List<Hit<SessionSummaryElastic>> executeSessionSummariesQuery(String chainId,
+                                                                          int offset, int count,
+                                                                          String sortColumn,
+                                                                          List<String> searchAfter,
+                                                                          FilterRequestAndSearchDTO filterAndSearch) {
+        SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
+                .index(sessionSummaryService.getIndexName())
+                .query(buildSessionsQuery(chainId, filterAndSearch).build().toQuery())
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(sortColumn).order(SortOrder.Desc).build()).build())
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(AGGREGATION_COLUMN).build()).build())
+                .size(count);
+        if (searchAfter != null) {
+            requestBuilder.searchAfter(searchAfter);
+        } else {
+            requestBuilder.from(offset);
+        }
+        try {
+            return openSearchClientSupplier.getClient().search(requestBuilder.build(), SessionSummaryElastic.class).hits().hits();
+        } catch (IOException e) {
+            throw new SearchException(ELEMENT_EXECUTION_ERROR_MESSAGE, e);
+        }
+    }
+
     /**
      * Execute query for sessions element. Excludes {@link #EXCLUDE_FIELD_IN_SESSIONS} fields from resulting query
      */
@@ -217,13 +923,24 @@ public class SessionService {
                                                                          FilterRequestAndSearchDTO filterAndSearch) {
         SearchRequest.Builder requestBuilder = new SearchRequest.Builder()
                 .index(openSearchClientSupplier.normalize(indexName));
-        BoolQuery.Builder queryBuilder = new BoolQuery.Builder();
+        BoolQuery.Builder queryBuilder = buildSessionsQuery(chainId, filterAndSearch);
 
-        if (StringUtils.isNotEmpty(chainId)) {
-            queryBuilder.must(new TermQuery.Builder().field("chainId").value(FieldValue.of(chainId)).build().toQuery());
-        }
+        addSearchStringQuery(queryBuilder, filterAndSearch.getSearchString());
+
+        requestBuilder
+                .query(queryBuilder.build().toQuery())
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(sortColumn).order(SortOrder.Desc).build()).build())
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(AGGREGATION_COLUMN).build()).build())
+                .from(offset)
+                .size(count)
+                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(STARTED_KEY).order(SortOrder.Asc).build()).build())
+                .source(builder -> builder.filter(builder1 -> builder1.excludes(Arrays.asList(EXCLUDE_FIELD_IN_SESSIONS))));
+        configureSessionElementsCollapseBy(requestBuilder, SESSION_ID_KEY);
 
-        String searchString = filterAndSearch.getSearchString();
+        return getSearchResponse(requestBuilder.build());
+    }
+
+    private void addSearchStringQuery(BoolQuery.Builder queryBuilder, String searchString) {
         if (StringUtils.isNotEmpty(searchString)) {
             queryBuilder.must(
                     List.of(new BoolQuery.Builder()
@@ -244,6 +961,17 @@ public class SessionService {
                     .build().toQuery())
             );
         }
+    }
+
+    /**
+     * Builds chain and filters part of the sessions query. Fields are the same in elements and sessions indices.
+     */
+    private BoolQuery.Builder buildSessionsQuery(String chainId, FilterRequestAndSearchDTO filterAndSearch) {
+        BoolQuery.Builder queryBuilder = new BoolQuery.Builder();
+
+        if (StringUtils.isNotEmpty(chainId)) {
+            queryBuilder.must(new TermQuery.Builder().field(CHAIN_ID_KEY).value(FieldValue.of(chainId)).build().toQuery());
+        }
 
         for (FilterRequest filterRequest : filterAndSearch.getFilterRequestList()) {
             switch (filterRequest.getFeature()) {
@@ -259,28 +987,19 @@ public class SessionService {
                         getPredicate(filterRequest.getCondition(), queryBuilder, "sessionFinished", filterRequest.getValue());
             }
         }
-
-        requestBuilder
-                .query(queryBuilder.build().toQuery())
-                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(sortColumn).order(SortOrder.Desc).build()).build())
-                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(AGGREGATION_COLUMN).build()).build())
-                .from(offset)
-                .size(count)
-                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(STARTED_KEY).order(SortOrder.Asc).build()).build())
-                .source(builder -> builder.filter(builder1 -> builder1.excludes(Arrays.asList(EXCLUDE_FIELD_IN_SESSIONS))));
-        configureSessionElementsCollapseBy(requestBuilder, SESSION_ID_KEY);
-
-        return getSearchResponse(requestBuilder.build());
+        return queryBuilder;
     }
 
     private void getPredicate(FilterCondition condition, BoolQuery.Builder queryBuilder, String fieldName, String value) {
         switch (condition) {
             case IN -> queryBuilder.must(new TermsQuery.Builder().field(fieldName).terms(new TermsQueryField.Builder().value(Arrays.stream(value.split(",")).map(FieldValue::of).toList()).build()).build().toQuery());
             case NOT_IN -> queryBuilder.mustNot(new TermsQuery.Builder().field(fieldName).terms(new TermsQueryField.Builder().value(Arrays.stream(value.split(",")).map(FieldValue::of).toList()).build()).build().toQuery());
-            case CONTAINS -> queryBuilder.must(new WildcardQuery.Builder().field(fieldName).value("*" + value + "*").build().toQuery());
-            case DOES_NOT_CONTAIN -> queryBuilder.mustNot(new WildcardQuery.Builder().field(fieldName).value("*" + value + "*").build().toQuery());
-            case STARTS_WITH -> queryBuilder.must(new MatchPhrasePrefixQuery.Builder().field(fieldName).query(value).build().toQuery());
-            case ENDS_WITH -> queryBuilder.must(new WildcardQuery.Builder().field(fieldName).value("*" + value).build().toQuery());
+            case CONTAINS -> queryBuilder.must(new WildcardQuery.Builder().field(getSubstringField(fieldName)).value("*" + value + "*").build().toQuery());
+            case DOES_NOT_CONTAIN -> queryBuilder.mustNot(new WildcardQuery.Builder().field(getSubstringField(fieldName)).value("*" + value + "*").build().toQuery());
+            case STARTS_WITH -> queryBuilder.must(isSubstringSubfieldsReady()
+                    ? new PrefixQuery.Builder().field(fieldName).value(value).build().toQuery()
+                    : new MatchPhrasePrefixQuery.Builder().field(fieldName).query(value).build().toQuery());
+            case ENDS_WITH -> queryBuilder.must(new WildcardQuery.Builder().field(getSubstringField(fieldName)).value("*" + value).build().toQuery());
             case IS_AFTER -> {
                 Date date = new Date(Long.parseLong(value));
                 queryBuilder.must(new RangeQuery.Builder().field(fieldName).gte(JsonData.of(date)).build().toQuery());
@@ -296,15 +1015,34 @@ public class SessionService {
         }
     }
 
-    private List<SessionElementElastic> getSearchResponse(SearchRequest request) {
-        SearchResponse response;
+    /**
+     * Leading wildcards are served by the wildcard subfield once both indices are confirmed to have it,
+     * plain keyword fields are used otherwise, e.g. while older elements indices are being reindexed
+     */
+    private String getSubstringField(String fieldName) {
+        return isSubstringSubfieldsReady() ? SessionIndexMappings.substringField(fieldName) : fieldName;
+    }
+
+    /**
+     * Whether both indices are confirmed to have the managed keyword mapping with wildcard subfields.
+     * Until then filters keep the queries suited to dynamically mapped fields.
+     */
+    private boolean isSubstringSubfieldsReady() {
+        return elementsIndexManager.isSubstringSubfieldsReady() && sessionSummaryService.hasSubstringSubfields();
+    }
+
+    private SearchResponse<SessionElementElastic> search(SearchRequest request) {
         try {
             ApacheHttpClient5Options.Builder optionsBuilder = ApacheHttpClient5Options.DEFAULT.toBuilder();
             optionsBuilder.setHttpAsyncResponseConsumerFactory(consumerFactory);
-            response = openSearchClientSupplier.getClient().withTransportOptions(optionsBuilder.build()).search(request, SessionElementElastic.class);
+            return openSearchClientSupplier.getClient().withTransportOptions(optionsBuilder.build()).search(request, SessionElementElastic.class);
         } catch (IOException e) {
             throw new SearchException(ELEMENT_EXECUTION_ERROR_MESSAGE, e);
         }
+    }
+
+    private List<SessionElementElastic> getSearchResponse(SearchRequest request) {
+        SearchResponse response = search(request);
         return isNull(response)
                 ? Collections.emptyList()
                 : Arrays.stream(response.hits().hits().toArray())
@@ -314,6 +1052,10 @@ public class SessionService {
                     .toList();
     }
 
+    private List<String> getIndicesToDelete() {
+        return List.of(openSearchClientSupplier.normalize(indexName), sessionSummaryService.getIndexName());
+    }
+
     private void delete(DeleteByQueryRequest request) {
         try {
             openSearchClientSupplier.getClient().deleteByQuery(request);
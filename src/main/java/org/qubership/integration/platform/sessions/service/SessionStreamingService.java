@@ -0,0 +1,206 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.query_dsl.TermQuery;
+import org.opensearch.client.opensearch.core.search.SourceConfig;
+import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.mapper.SessionAggregateMapper;
+import org.qubership.integration.platform.sessions.mapper.SessionElementMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Writes a session as JSON element by element. Only the element tree structure is kept in memory,
+ * element details are read from OpenSearch by pages in the order they are written.
+ */
+@Slf4j
+@Service
+public class SessionStreamingService {
+    private static final String SESSION_ELEMENTS_FIELD = "sessionElements";
+    private static final String CHILDREN_FIELD = "children";
+    private static final List<String> STRUCTURE_SOURCE_FIELDS = Arrays.asList("id", "parentElementId", "started",
+            "sessionId", "externalSessionId", "sessionStarted", "sessionFinished", "sessionDuration",
+            "sessionExecutionStatus", "importedSession", "chainId", "chainName", "domain", "engineAddress",
+            "loggingLevel", "snapshotName", "correlationId", "parentSessionId");
+
+    private final SessionService sessionService;
+    private final SessionAggregateMapper sessionMapper;
+    private final SessionElementMapper sessionElementMapper;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public SessionStreamingService(SessionService sessionService,
+                                   SessionAggregateMapper sessionMapper,
+                                   SessionElementMapper sessionElementMapper,
+                                   ObjectMapper objectMapper) {
+        this.sessionService = sessionService;
+        this.sessionMapper = sessionMapper;
+        this.sessionElementMapper = sessionElementMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the element tree of the session without element details.
+     *
+     * @return session structure or null if session doesn't exist
+     */
+    public SessionStructure findStructure(String sessionId) {
+        Map<String, ElementNode> nodes = new LinkedHashMap<>();
+        SessionElementElastic[] first = new SessionElementElastic[1];
+        SourceConfig source = new SourceConfig.Builder()
+                .filter(builder -> builder.includes(STRUCTURE_SOURCE_FIELDS))
+                .build();
+        sessionService.scanSessionElements(
+                new TermQuery.Builder().field(SessionService.SESSION_ID_KEY).value(FieldValue.of(sessionId)).build().toQuery(),
+                source,
+                page -> page.forEach(element -> {
+                    if (first[0] == null || (first[0].getId().equals(element.getId())
+                            && element.getSessionDuration() > first[0].getSessionDuration())) {
+                        first[0] = element;
+                    }
+                    nodes.merge(element.getId(), new ElementNode(element), ElementNode::latest);
+                }));
+
+        if (first[0] == null) {
+            return null;
+        }
+        return new SessionStructure(sessionMapper.toPreview(first[0]), buildWriteOrder(nodes));
+    }
+
+    public void writeSession(SessionStructure structure, boolean light, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.writeStartObject();
+            writeFields(generator, objectMapper.valueToTree(structure.session()), SESSION_ELEMENTS_FIELD);
+            generator.writeArrayFieldStart(SESSION_ELEMENTS_FIELD);
+
+            Deque<Integer> openDepths = new ArrayDeque<>();
+            List<ElementNode> order = structure.elements();
+            for (int from = 0; from < order.size(); from += SessionService.SCROLL_WINDOW) {
+                List<ElementNode> page = order.subList(from, Math.min(from + SessionService.SCROLL_WINDOW, order.size()));
+                Map<String, SessionElementElastic> details = new HashMap<>();
+                sessionService.findElementsByIds(structure.session().getId(), page.stream().map(ElementNode::id).toList(), light)
+                        .forEach(element -> details.put(element.getId(), element));
+
+                for (ElementNode node : page) {
+                    while (!openDepths.isEmpty() && openDepths.peek() >= node.depth()) {
+                        closeElement(generator);
+                        openDepths.pop();
+                    }
+                    SessionElementElastic element = details.get(node.id());
+                    if (element == null) {
+                        // children of the missing element are attached to its parent
+                        log.warn("Session element {} of session {} disappeared while streaming", node.id(), structure.session().getId());
+                        continue;
+                    }
+                    generator.writeStartObject();
+                    writeFields(generator, objectMapper.valueToTree(sessionElementMapper.toSessionElement(element)), CHILDREN_FIELD);
+                    generator.writeArrayFieldStart(CHILDREN_FIELD);
+                    openDepths.push(node.depth());
+                }
+                generator.flush();
+            }
+            while (!openDepths.isEmpty()) {
+                closeElement(generator);
+                openDepths.pop();
+            }
+
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void closeElement(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeFields(JsonGenerator generator, ObjectNode object, String skippedField) throws IOException {
+        Iterator<Map.Entry<String, JsonNode>> fields = object.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (!skippedField.equals(field.getKey())) {
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+        }
+    }
+
+    /**
+     * Orders elements depth-first with children sorted by start time, the same hierarchy
+     * {@link SessionElementMapper#toSessionElements(List)} builds. Elements with unknown parents are attached to the root.
+     */
+    private static List<ElementNode> buildWriteOrder(Map<String, ElementNode> nodes) {
+        Map<String, List<ElementNode>> children = new HashMap<>();
+        List<ElementNode> roots = new ArrayList<>();
+        for (ElementNode node : nodes.values()) {
+            if (node.parentId() != null && nodes.containsKey(node.parentId())) {
+                children.computeIfAbsent(node.parentId(), key -> new ArrayList<>()).add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+
+        List<ElementNode> order = new ArrayList<>(nodes.size());
+        Deque<ElementNode> stack = new ArrayDeque<>();
+        pushSorted(stack, roots, 0);
+        while (!stack.isEmpty()) {
+            ElementNode node = stack.pop();
+            order.add(node);
+            pushSorted(stack, children.getOrDefault(node.id(), Collections.emptyList()), node.depth() + 1);
+        }
+        return order;
+    }
+
+    private static void pushSorted(Deque<ElementNode> stack, List<ElementNode> nodes, int depth) {
+        List<ElementNode> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing(ElementNode::started));
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            stack.push(sorted.get(i).withDepth(depth));
+        }
+    }
+
+    public record SessionStructure(Session session, List<ElementNode> elements) {}
+
+    public record ElementNode(String id, String parentId, LocalDateTime started, long sessionDuration, int depth) {
+        ElementNode(SessionElementElastic element) {
+            this(element.getId(), element.getParentElementId(), LocalDateTime.parse(element.getStarted()),
+                    element.getSessionDuration(), 0);
+        }
+
+        ElementNode withDepth(int depth) {
+            return new ElementNode(id, parentId, started, sessionDuration, depth);
+        }
+
+        static ElementNode latest(ElementNode existing, ElementNode candidate) {
+            return candidate.sessionDuration() > existing.sessionDuration() ? candidate : existing;
+        }
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.FieldSort;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.OpType;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.SortOptions;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.aggregations.Aggregation;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+import org.opensearch.client.opensearch._types.aggregations.CompositeBucket;
+import org.opensearch.client.opensearch._types.aggregations.StringTermsBucket;
+import org.opensearch.client.opensearch._types.mapping.Property;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
+import org.opensearch.client.opensearch._types.query_dsl.MatchAllQuery;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch._types.query_dsl.RangeQuery;
+import org.opensearch.client.opensearch._types.query_dsl.TermsQuery;
+import org.opensearch.client.opensearch._types.query_dsl.TermsQueryField;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.IndexRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.DeleteOperation;
+import org.opensearch.client.opensearch.core.bulk.IndexOperation;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.indices.CreateIndexRequest;
+import org.opensearch.client.opensearch.indices.ExistsRequest;
+import org.opensearch.client.opensearch.indices.GetMappingRequest;
+import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.dto.SessionElement;
+import org.qubership.integration.platform.sessions.dto.opensearch.ServiceStateElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
+import org.qubership.integration.platform.sessions.exception.SearchException;
+import org.qubership.integration.platform.sessions.mapper.SessionSummaryMapper;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SummaryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.Objects.isNull;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.bool;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.date;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.hasSubstringSubfields;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.isWildcardSupported;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.keyword;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.number;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.substringKeyword;
+
+/**
+ * Maintains the sessions index: one summary document per session, so that session lists
+ * are served without collapsing over the (payload heavy) session elements.
+ */
+@Slf4j
+@Service
+public class SessionSummaryService {
+    private static final String SESSION_ID_KEY = SessionService.SESSION_ID_KEY;
+    private static final String ID_KEY = "id";
+    private static final String STARTED_KEY = SessionService.STARTED_KEY;
+    private static final String FINISHED_KEY = "finished";
+    private static final String SESSION_FINISHED_KEY = "sessionFinished";
+    private static final String SESSION_DURATION_KEY = "sessionDuration";
+    private static final String EXCEPTION_MESSAGE_KEY = "exceptionInfo.message";
+    private static final List<String> SUMMARY_SOURCE_FIELDS = Arrays.asList("sessionId", "externalSessionId",
+            "sessionStarted", "sessionFinished", "sessionDuration", "sessionExecutionStatus", "importedSession",
+            "chainId", "chainName", "domain", "engineAddress", "loggingLevel", "snapshotName", "correlationId",
+            "parentSessionId");
+
+    private static final String AFFECTED_SESSIONS_AGG = "affected_sessions";
+    private static final String SESSIONS_AGG = "sessions";
+    private static final String LATEST_ELEMENT_AGG = "latest_element";
+    private static final String ELEMENTS_AGG = "elements";
+    private static final String ERRORS_AGG = "errors";
+    private static final String RECONCILE_STATE = "summary-reconcile";
+    private static final int CONFLICT = 409;
+
+    private final String elementsIndexName;
+    private final String sessionsIndexName;
+    private final SummaryProperties summaryProperties;
+
+    private final OpenSearchClientSupplier openSearchClientSupplier;
+    private final SessionSummaryMapper summaryMapper;
+
+    private final ServiceStateService serviceStateService;
+
+    private final boolean manageMapping;
+
+    private volatile boolean indexReady = false;
+    private volatile boolean substringSubfields = false;
+    private volatile boolean backfillCompleted = false;
+
+    @Autowired
+    public SessionSummaryService(OpenSearchClientSupplier openSearchClientSupplier,
+                                 OpenSearchProperties openSearchProperties,
+                                 SessionsProperties sessionsProperties,
+                                 SessionSummaryMapper summaryMapper,
+                                 ServiceStateService serviceStateService) {
+        this.elementsIndexName = openSearchProperties.index().elements().name();
+        this.sessionsIndexName = openSearchProperties.index().sessions().name();
+        this.summaryProperties = sessionsProperties.summary();
+        this.manageMapping = openSearchProperties.index().elements().manageMapping();
+        this.openSearchClientSupplier = openSearchClientSupplier;
+        this.summaryMapper = summaryMapper;
+        this.serviceStateService = serviceStateService;
+    }
+
+    public String getIndexName() {
+        return openSearchClientSupplier.normalize(sessionsIndexName);
+    }
+
+    /**
+     * Whether the sessions index has wildcard subfields for substring filters.
+     */
+    public boolean hasSubstringSubfields() {
+        return substringSubfields;
+    }
+
+    /**
+     * Builds summary of an imported session, so it is listed without waiting for the reconciler.
+     */
+    public SessionSummaryElastic toSummary(Session session) {
+        List<SessionElement> elements = flatten(session.getSessionElements());
+        long errorsCount = elements.stream().filter(element -> element.getExceptionInfo() != null).count();
+        return summaryMapper.toSummary(session, elements.size(), errorsCount);
+    }
+
+    /**
+     * Creates the summary of an imported session unless a session with the same id exists,
+     * so that of concurrent imports of a session only one writes it.
+     *
+     * @return whether the summary is created
+     */
+    public boolean claimSummary(SessionSummaryElastic summary) {
+        ensureIndex();
+        try {
+            openSearchClientSupplier.getClient().index(new IndexRequest.Builder<SessionSummaryElastic>()
+                    .index(getIndexName())
+                    .id(summary.getSessionId())
+                    .opType(OpType.Create)
+                    .document(summary)
+                    .build());
+            return true;
+        } catch (OpenSearchException e) {
+            if (e.status() == CONFLICT) {
+                return false;
+            }
+            throw new SearchException("Unable to write summary of session " + summary.getSessionId(), e);
+        } catch (IOException e) {
+            throw new SearchException("Unable to write summary of session " + summary.getSessionId(), e);
+        }
+    }
+
+    /**
+     * Rebuilds summaries of the sessions from their elements, summaries of sessions without elements are removed.
+     * Elements must be made searchable by a refresh before.
+     */
+    public void rebuildSummaries(Collection<String> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        ensureIndex();
+        List<String> ids = List.copyOf(sessionIds);
+        try {
+            for (int from = 0; from < ids.size(); from += summaryProperties.reconcileBatchSize()) {
+                List<String> chunk = ids.subList(from, Math.min(from + summaryProperties.reconcileBatchSize(), ids.size()));
+                List<SessionSummaryElastic> summaries = buildSummaries(chunk);
+                indexSummaries(summaries);
+                Set<String> orphaned = new HashSet<>(chunk);
+                summaries.forEach(summary -> orphaned.remove(summary.getSessionId()));
+                deleteSummaries(orphaned);
+            }
+        } catch (IOException e) {
+            throw new SearchException("Unable to rebuild session summaries", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        try {
+            ensureIndex();
+            refreshBackfillState();
+        } catch (RuntimeException e) {
+            log.warn("Failed to prepare sessions index {}, retrying on the next reconcile", getIndexName(), e);
+        }
+    }
+
+    /**
+     * Whether summaries of all sessions present before the first reconcile are built.
+     * Until then session lists are served from the elements index.
+     */
+    public boolean isBackfillCompleted() {
+        return backfillCompleted;
+    }
+
+    /**
+     * Rebuilds summaries of the sessions which got new or finished elements since the previous run. The first run
+     * builds summaries of all sessions. Runs only on the replica holding the reconcile lock,
+     * progress is kept in the service state index, so it survives restarts and moves between replicas.
+     */
+    @Scheduled(fixedDelayString = "${qip.sessions.summary.reconcile-interval:10s}")
+    public void reconcile() {
+        try {
+            ensureIndex();
+            if (!serviceStateService.tryLock(RECONCILE_STATE, summaryProperties.lockTtl())) {
+                refreshBackfillState();
+                return;
+            }
+            Instant runStarted = Instant.now();
+            ServiceStateElastic state = serviceStateService.getState(RECONCILE_STATE).orElseGet(ServiceStateElastic::new);
+            if (!Boolean.TRUE.equals(state.getCompleted())) {
+                if (isNull(state.getCheckpoint())) {
+                    // Sessions started during the backfill are picked up by the following runs
+                    state.setCheckpoint(runStarted.toEpochMilli());
+                    serviceStateService.putState(RECONCILE_STATE, state);
+                }
+                if (!backfill(state)) {
+                    return;
+                }
+            }
+            Instant since = Instant.ofEpochMilli(state.getCheckpoint()).minus(summaryProperties.reconcileLag());
+            String after = null;
+            do {
+                after = reconcileBatch(since, after);
+            } while (after != null);
+            state.setCheckpoint(runStarted.toEpochMilli());
+            serviceStateService.putState(RECONCILE_STATE, state);
+        } catch (Exception e) {
+            log.warn("Failed to reconcile session summaries", e);
+        }
+    }
+
+    /**
+     * Builds summaries of all sessions batch by batch, saving position after each batch.
+     *
+     * @return whether the backfill is completed, false if the lock moved to another replica
+     */
+    private boolean backfill(ServiceStateElastic state) throws IOException {
+        String after = state.getCursor();
+        log.info("Building summaries of all sessions, continuing after session {}", after);
+        do {
+            after = reconcileBatch(null, after);
+            state.setCursor(after);
+            state.setCompleted(after == null);
+            serviceStateService.putState(RECONCILE_STATE, state);
+            if (after != null && !serviceStateService.tryLock(RECONCILE_STATE, summaryProperties.lockTtl())) {
+                log.info("Summaries backfill lock is lost, the backfill continues on another replica");
+                return false;
+            }
+        } while (after != null);
+        backfillCompleted = true;
+        log.info("Summaries of all sessions are built");
+        return true;
+    }
+
+    /**
+     * Rebuilds summaries of a batch of sessions with elements started or finished since the given time, or of any sessions.
+     *
+     * @return session id to continue after, null if there are no more sessions
+     */
+    private String reconcileBatch(Instant since, String after) throws IOException {
+        CompositeAggregate affected = findAffectedSessions(since, after);
+        List<String> sessionIds = affected.buckets().array().stream()
+                .map(CompositeBucket::key)
+                .map(key -> key.get(SESSION_ID_KEY).to(String.class))
+                .toList();
+        if (!sessionIds.isEmpty()) {
+            indexSummaries(buildSummaries(sessionIds));
+        }
+        return sessionIds.size() < summaryProperties.reconcileBatchSize() || isNull(affected.afterKey())
+                ? null
+                : affected.afterKey().get(SESSION_ID_KEY).to(String.class);
+    }
+
+    private void refreshBackfillState() {
+        if (!backfillCompleted) {
+            backfillCompleted = serviceStateService.getState(RECONCILE_STATE)
+                    .map(ServiceStateElastic::getCompleted)
+                    .orElse(false);
+        }
+    }
+
+    private CompositeAggregate findAffectedSessions(Instant since, String after) throws IOException {
+        // Elements of a long session are updated on finish, so sessions started before the checkpoint are caught too
+        Query query = isNull(since)
+                ? new MatchAllQuery.Builder().build().toQuery()
+                : new BoolQuery.Builder()
+                        .should(Stream.of(STARTED_KEY, FINISHED_KEY, SESSION_FINISHED_KEY)
+                                .map(field -> new RangeQuery.Builder().field(field).gte(JsonData.of(Date.from(since))).build().toQuery())
+                                .toList())
+                        .minimumShouldMatch("1")
+                        .build().toQuery();
+        SearchRequest request = new SearchRequest.Builder()
+                .index(openSearchClientSupplier.normalize(elementsIndexName))
+                .size(0)
+                .query(query)
+                .aggregations(AFFECTED_SESSIONS_AGG, Aggregation.of(aggregation -> aggregation.composite(composite -> {
+                    composite.size(summaryProperties.reconcileBatchSize())
+                            .sources(Map.of(SESSION_ID_KEY, CompositeAggregationSource.of(source ->
+                                    source.terms(terms -> terms.field(SESSION_ID_KEY)))));
+                    if (after != null) {
+                        composite.after(Map.of(SESSION_ID_KEY, after));
+                    }
+                    return composite;
+                })))
+                .build();
+        SearchResponse<SessionElementElastic> response = openSearchClientSupplier.getClient()
+                .search(request, SessionElementElastic.class);
+        return response.aggregations().get(AFFECTED_SESSIONS_AGG).composite();
+    }
+
+    private List<SessionSummaryElastic> buildSummaries(List<String> sessionIds) throws IOException {
+        // Exact count, element ids are unique within the elements index
+        Aggregation elementsCount = Aggregation.of(aggregation -> aggregation.valueCount(count -> count.field(ID_KEY)));
+        SearchRequest request = new SearchRequest.Builder()
+                .index(openSearchClientSupplier.normalize(elementsIndexName))
+                .size(0)
+                .query(new TermsQuery.Builder()
+                        .field(SESSION_ID_KEY)
+                        .terms(new TermsQueryField.Builder().value(sessionIds.stream().map(FieldValue::of).toList()).build())
+                        .build().toQuery())
+                .aggregations(SESSIONS_AGG, Aggregation.of(aggregation -> aggregation
+                        .terms(terms -> terms.field(SESSION_ID_KEY).size(sessionIds.size()))
+                        .aggregations(LATEST_ELEMENT_AGG, Aggregation.of(latest -> latest.topHits(topHits -> topHits
+                                .size(1)
+                                .sort(new SortOptions.Builder().field(new FieldSort.Builder().field(SESSION_DURATION_KEY).order(SortOrder.Desc).build()).build())
+                                .source(source -> source.filter(filter -> filter.includes(SUMMARY_SOURCE_FIELDS))))))
+                        .aggregations(ELEMENTS_AGG, elementsCount)
+                        .aggregations(ERRORS_AGG, Aggregation.of(errors -> errors
+                                .filter(filter -> filter.exists(exists -> exists.field(EXCEPTION_MESSAGE_KEY)))
+                                .aggregations(ELEMENTS_AGG, elementsCount)))))
+                .build();
+        SearchResponse<SessionElementElastic> response = openSearchClientSupplier.getClient()
+                .search(request, SessionElementElastic.class);
+
+        List<SessionSummaryElastic> summaries = new ArrayList<>();
+        for (StringTermsBucket bucket : response.aggregations().get(SESSIONS_AGG).sterms().buckets().array()) {
+            List<Hit<JsonData>> latest = bucket.aggregations().get(LATEST_ELEMENT_AGG).topHits().hits().hits();
+            if (latest.isEmpty() || isNull(latest.get(0).source())) {
+                continue;
+            }
+            SessionElementElastic element = latest.get(0).source().to(SessionElementElastic.class);
+            long elements = (long) bucket.aggregations().get(ELEMENTS_AGG).valueCount().value();
+            long errors = (long) bucket.aggregations().get(ERRORS_AGG).filter().aggregations().get(ELEMENTS_AGG).valueCount().value();
+            summaries.add(summaryMapper.toSummary(element, elements, errors));
+        }
+        return summaries;
+    }
+
+    public void indexSummaries(List<SessionSummaryElastic> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        ensureIndex();
+        List<BulkOperation> operations = summaries.stream()
+                .map(summary -> new BulkOperation.Builder()
+                        .index(IndexOperation.of(io -> io
+                                .index(getIndexName())
+                                .id(summary.getSessionId())
+                                .document(summary)))
+                        .build())
+                .toList();
+        try {
+            BulkResponse response = openSearchClientSupplier.getClient()
+                    .bulk(new BulkRequest.Builder().operations(operations).build());
+            if (response.errors()) {
+                response.items().stream()
+                        .filter(item -> item.error() != null)
+                        .forEach(item -> log.warn("Failed to write summary of session {}: {}", item.id(), item.error().reason()));
+            }
+        } catch (IOException e) {
+            throw new SearchException("Unable to write session summaries to OpenSearch", e);
+        }
+    }
+
+    private void deleteSummaries(Collection<String> sessionIds) throws IOException {
+        if (sessionIds.isEmpty()) {
+            return;
+        }
+        List<BulkOperation> operations = sessionIds.stream()
+                .map(sessionId -> new BulkOperation.Builder()
+                        .delete(DeleteOperation.of(operation -> operation.index(getIndexName()).id(sessionId)))
+                        .build())
+                .toList();
+        BulkResponse response = openSearchClientSupplier.getClient()
+                .bulk(new BulkRequest.Builder().operations(operations).build());
+        if (response.errors()) {
+            response.items().stream()
+                    .filter(item -> item.error() != null)
+                    .forEach(item -> log.warn("Failed to delete summary of session {}: {}", item.id(), item.error().reason()));
+        }
+    }
+
+    private void ensureIndex() {
+        if (indexReady) {
+            return;
+        }
+        String index = getIndexName();
+        try {
+            boolean exists = openSearchClientSupplier.getClient().indices()
+                    .exists(new ExistsRequest.Builder().index(index).build()).value();
+            if (!exists) {
+                try {
+                    openSearchClientSupplier.getClient().indices().create(new CreateIndexRequest.Builder()
+                            .index(index)
+                            .mappings(getMapping(manageMapping && isWildcardSupported(
+                                    openSearchClientSupplier.getClient().info().version().number())))
+                            .build());
+                    log.info("Created sessions index {}", index);
+                } catch (OpenSearchException e) {
+                    // Another replica may have created the index in the meantime
+                    if (!openSearchClientSupplier.getClient().indices()
+                            .exists(new ExistsRequest.Builder().index(index).build()).value()) {
+                        throw e;
+                    }
+                }
+            }
+            // Checked on the actual mapping, as the index may have been created by another version or setting
+            substringSubfields = openSearchClientSupplier.getClient().indices()
+                    .getMapping(new GetMappingRequest.Builder().index(index).build())
+                    .result().values().stream()
+                    .allMatch(record -> hasSubstringSubfields(record.mappings()));
+            indexReady = true;
+        } catch (IOException e) {
+            throw new SearchException("Unable to create sessions index " + index, e);
+        }
+    }
+
+    /**
+     * Wildcard subfields are added only when the mapping is managed by the service
+     * and the cluster supports the wildcard field type (OpenSearch 2.15+).
+     */
+    private static TypeMapping getMapping(boolean substringSubfields) {
+        Property substringKeyword = substringSubfields ? substringKeyword() : keyword();
+        return new TypeMapping.Builder()
+                .properties("sessionId", keyword())
+                .properties("externalSessionId", keyword())
+                .properties("sessionStarted", date())
+                .properties("sessionFinished", date())
+                .properties("sessionDuration", number())
+                .properties("sessionExecutionStatus", keyword())
+                .properties("importedSession", bool())
+                .properties("chainId", keyword())
+                .properties("chainName", substringKeyword)
+                .properties("domain", keyword())
+                .properties("engineAddress", substringKeyword)
+                .properties("loggingLevel", keyword())
+                .properties("snapshotName", keyword())
+                .properties("correlationId", keyword())
+                .properties("parentSessionId", keyword())
+                .properties("elementsCount", number())
+                .properties("errorsCount", number())
+                .build();
+    }
+
+    private static List<SessionElement> flatten(List<SessionElement> elements) {
+        List<SessionElement> result = new ArrayList<>();
+        if (!CollectionUtils.isEmpty(elements)) {
+            for (SessionElement element : elements) {
+                result.add(element);
+                result.addAll(flatten(element.getChildren()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.json.stream.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.NdJsonpSerializable;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.ElementsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.IndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.SessionsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.StateIndexProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.BulkRequestProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares CPU time per imported MB of bulk writes serializing each element once with the previous path,
+ * which serialized an element to measure its size and again as the bulk document. Bulk bodies are written
+ * the way the transport does, without a cluster. Runs only on demand, e.g.
+ * {@code mvn test -Dtest=BulkIngestionBenchmarkTest -Dbenchmark=true}, results are logged.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkIngestionBenchmarkTest {
+    private static final String INDEX_NAME = "elements";
+    private static final int ELEMENTS = 10_000;
+    private static final int PAYLOAD_SIZE = 8 * 1024;
+    private static final int MAX_ELEMENTS = 1_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonpMapper jsonpMapper = new JacksonJsonpMapper();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final CountingOutputStream body = new CountingOutputStream();
+
+    @Test
+    void cpuPerImportedMegabyte() throws IOException {
+        List<SessionElementElastic> elements = generateElements();
+        BulkIngestionService service = createService();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            writeSerializedOnce(service, elements);
+            writeSerializedTwice(elements);
+        }
+        long onceNanos = 0;
+        long twiceNanos = 0;
+        long bytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            body.count = 0;
+            long started = threads.getCurrentThreadCpuTime();
+            writeSerializedOnce(service, elements);
+            onceNanos += threads.getCurrentThreadCpuTime() - started;
+            bytes += body.count;
+
+            started = threads.getCurrentThreadCpuTime();
+            writeSerializedTwice(elements);
+            twiceNanos += threads.getCurrentThreadCpuTime() - started;
+        }
+        double megabytes = bytes / MEGABYTE;
+        log.info("Bulk writes of {} MB: serialized once {} ms CPU per MB, serialized twice {} ms CPU per MB",
+                String.format("%.1f", megabytes),
+                String.format("%.2f", onceNanos / 1_000_000.0 / megabytes),
+                String.format("%.2f", twiceNanos / 1_000_000.0 / megabytes));
+    }
+
+    private void writeSerializedOnce(BulkIngestionService service, List<SessionElementElastic> elements) {
+        BulkIngestionService.Ingestion ingestion = service.start();
+        elements.forEach(ingestion::add);
+        ingestion.complete();
+    }
+
+    /**
+     * The previous path: the size is measured on a separate serialization, the element is the bulk document.
+     */
+    private void writeSerializedTwice(List<SessionElementElastic> elements) throws IOException {
+        List<BulkOperation> operations = new ArrayList<>();
+        long size = 0;
+        for (SessionElementElastic element : elements) {
+            size += objectMapper.writeValueAsBytes(element).length;
+            operations.add(BulkOperation.of(operation -> operation.index(index -> index
+                    .index(INDEX_NAME)
+                    .id(element.getId())
+                    .requireAlias(true)
+                    .document(element))));
+            if (operations.size() >= MAX_ELEMENTS) {
+                writeBody(new BulkRequest.Builder().index(INDEX_NAME).requireAlias(true).operations(operations).build());
+                operations = new ArrayList<>();
+            }
+        }
+        if (!operations.isEmpty()) {
+            writeBody(new BulkRequest.Builder().index(INDEX_NAME).requireAlias(true).operations(operations).build());
+        }
+        if (size == 0) {
+            throw new IllegalStateException("No elements were serialized");
+        }
+    }
+
+    private BulkIngestionService createService() {
+        OpenSearchAsyncClient asyncClient = mock(OpenSearchAsyncClient.class);
+        try {
+            when(asyncClient.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+                writeBody(invocation.getArgument(0));
+                return CompletableFuture.completedFuture(BulkResponse.of(response -> response
+                        .errors(false)
+                        .took(0)
+                        .items(List.of())));
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        OpenSearchClientSupplier clientSupplier = mock(OpenSearchClientSupplier.class);
+        when(clientSupplier.getAsyncClient()).thenReturn(asyncClient);
+        when(clientSupplier.normalize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        return new BulkIngestionService(objectMapper, clientSupplier,
+                new OpenSearchProperties(null, null, new IndexProperties(null,
+                        new ElementsIndexProperties(INDEX_NAME, false),
+                        new SessionsIndexProperties("sessions"),
+                        new StateIndexProperties("state"))),
+                new SessionsProperties(
+                        new BulkRequestProperties(512 * 1024, 512 * 1024, MAX_ELEMENTS, 1, 0,
+                                Duration.ofMillis(200), Duration.ofSeconds(10)),
+                        null, null, null, null, null, null),
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Writes the request as NDJSON the same way the opensearch transport does.
+     */
+    private void writeBody(NdJsonpSerializable value) throws IOException {
+        Iterator<?> values = value._serializables();
+        while (values.hasNext()) {
+            Object item = values.next();
+            if (item instanceof NdJsonpSerializable nested && item != value) {
+                writeBody(nested);
+            } else {
+                JsonGenerator generator = jsonpMapper.jsonProvider().createGenerator(body);
+                jsonpMapper.serialize(item, generator);
+                generator.close();
+                body.write('\n');
+            }
+        }
+    }
+
+    private static List<SessionElementElastic> generateElements() {
+        // Payloads are shared between elements, serialization cost doesn't depend on it
+        String payload = "{\"value\":\"" + "x".repeat(PAYLOAD_SIZE / 2) + "\"}";
+        return IntStream.range(0, ELEMENTS)
+                .mapToObj(i -> SessionElementElastic.builder()
+                        .id("element-" + i)
+                        .sessionId("session-" + i / 100)
+                        .started("2025-01-01T00:00:00.000Z")
+                        .chainName("chain")
+                        .elementName("element")
+                        .bodyBefore(payload)
+                        .bodyAfter(payload)
+                        .build())
+                .toList();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.qubership.integration.platform.sessions.dto.ImportConflictMode;
+import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
+import org.qubership.integration.platform.sessions.exception.ImportConflictException;
+import org.qubership.integration.platform.sessions.exception.ImportException;
+import org.qubership.integration.platform.sessions.mapper.SessionElementMapper;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ImportServiceTest {
+    @Mock
+    private SessionElementMapper elementMapper;
+    @Mock
+    private SessionService sessionService;
+    @Mock
+    private SessionSummaryService sessionSummaryService;
+    @Mock
+    private SessionQueryCache sessionQueryCache;
+    @Mock
+    private BulkIngestionService bulkIngestionService;
+    @Mock
+    private BulkIngestionService.Ingestion ingestion;
+
+    private ImportService importService;
+    private ImportProgress progress;
+
+    @BeforeEach
+    void setUp() {
+        when(bulkIngestionService.start(eq(true), any())).thenReturn(ingestion);
+        when(ingestion.getConflictingSessionIds()).thenReturn(Set.of());
+        when(elementMapper.toElasticElements(any(), any())).thenAnswer(invocation -> {
+            Session session = invocation.getArgument(1);
+            return List.of(SessionElementElastic.builder()
+                    .id(session.getId() + "-element")
+                    .sessionId(session.getId())
+                    .build());
+        });
+        when(sessionSummaryService.toSummary(any(Session.class))).thenAnswer(invocation ->
+                SessionSummaryElastic.builder().sessionId(invocation.<Session>getArgument(0).getId()).build());
+        progress = new ImportProgress();
+        importService = new ImportService(new ObjectMapper(), elementMapper, sessionService,
+                sessionSummaryService, sessionQueryCache, bulkIngestionService);
+    }
+
+    @Test
+    void skipKeepsFirstCopyOfSessionDuplicatedInFile() {
+        givenClaimed("session-1");
+        givenCreatedElements("session-1");
+
+        List<Session> sessions = importSessions(ImportConflictMode.SKIP, "session-1", "session-1");
+
+        assertEquals(List.of("session-1"), sessions.stream().map(Session::getId).toList());
+        verify(sessionSummaryService, times(1)).claimSummary(any(SessionSummaryElastic.class));
+        verify(ingestion, times(1)).add(any(SessionElementElastic.class));
+        verify(sessionService, never()).deleteElementsByIds(anyCollection(), anyList());
+    }
+
+    @Test
+    void skipDoesNotWriteSessionClaimedByAnotherImport() {
+        givenClaimed("session-1");
+        givenCreatedElements("session-1");
+
+        List<Session> sessions = importSessions(ImportConflictMode.SKIP, "session-1", "session-2");
+
+        assertEquals(List.of("session-1"), sessions.stream().map(Session::getId).toList());
+        assertEquals(List.of("session-2"), progress.getSkippedSessionIds());
+        verify(ingestion, never()).add(argThat(element -> "session-2".equals(element.getSessionId())));
+        verify(sessionService, never()).deleteElementsByIds(anyCollection(), anyList());
+    }
+
+    @Test
+    void rollbackRemovesOnlySessionsClaimedByFile() {
+        givenClaimed("session-1");
+        givenCreatedElements("session-1");
+
+        assertThrows(ImportConflictException.class,
+                () -> importSessions(ImportConflictMode.ROLLBACK, "session-1", "session-2", "session-3"));
+
+        verify(sessionService).deleteElementsByIds(Set.of("session-1"), List.of("session-1-element"));
+        verify(sessionSummaryService, never()).claimSummary(argThat(summary -> "session-3".equals(summary.getSessionId())));
+    }
+
+    @Test
+    void skipRemovesClaimedSessionWithExistingElements() {
+        givenClaimed("session-1", "session-2");
+        givenCreatedElements("session-1", "session-2");
+        when(ingestion.getConflictingSessionIds()).thenReturn(Set.of("session-2"));
+
+        List<Session> sessions = importSessions(ImportConflictMode.SKIP, "session-1", "session-2");
+
+        assertEquals(List.of("session-1"), sessions.stream().map(Session::getId).toList());
+        verify(sessionService).deleteElementsByIds(Set.of("session-2"), List.of("session-2-element"));
+    }
+
+    @Test
+    void failedImportReleasesClaimedSessions() {
+        givenClaimed("session-1", "session-2");
+        givenCreatedElements("session-1", "session-2");
+        doThrow(new ImportException("Import was failed while saving to opensearch")).when(ingestion).complete();
+
+        assertThrows(ImportException.class, () -> importSessions(ImportConflictMode.SKIP, "session-1", "session-2"));
+
+        verify(ingestion).abort();
+        verify(sessionService).deleteElementsByIds(Set.of("session-1", "session-2"),
+                List.of("session-1-element", "session-2-element"));
+    }
+
+    private void givenClaimed(String... sessionIds) {
+        Collection<String> claimed = List.of(sessionIds);
+        when(sessionSummaryService.claimSummary(any(SessionSummaryElastic.class)))
+                .thenAnswer(invocation -> claimed.contains(invocation.<SessionSummaryElastic>getArgument(0).getSessionId()));
+    }
+
+    private void givenCreatedElements(String... sessionIds) {
+        when(ingestion.getCreatedElementIds(any())).thenAnswer(invocation -> {
+            Predicate<String> filter = invocation.getArgument(0);
+            return Stream.of(sessionIds).filter(filter).map(sessionId -> sessionId + "-element").toList();
+        });
+    }
+
+    private List<Session> importSessions(ImportConflictMode conflictMode, String... sessionIds) {
+        String content = Stream.of(sessionIds)
+                .map(sessionId -> "{\"id\":\"" + sessionId + "\",\"sessionElements\":[]}")
+                .reduce((first, second) -> first + "," + second)
+                .map(sessions -> "[" + sessions + "]")
+                .orElse("[]");
+        ImportService.ImportFile file = new ImportService.ImportFile("sessions.json",
+                new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+        return importService.importSessions(List.of(file), conflictMode, progress);
+    }
+}
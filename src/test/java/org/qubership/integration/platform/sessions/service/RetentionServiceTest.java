@@ -0,0 +1,167 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.search.HitsMetadata;
+import org.qubership.integration.platform.sessions.dto.ExecutionStatus;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionSummaryElastic;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.sessions.RetentionPolicyProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.RetentionProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RetentionServiceTest {
+    private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+    @Mock
+    private SessionService sessionService;
+    @Mock
+    private SessionSummaryService sessionSummaryService;
+    @Mock
+    private DeleteTaskService deleteTaskService;
+    @Mock
+    private ServiceStateService serviceStateService;
+    @Mock
+    private OpenSearchClientSupplier openSearchClientSupplier;
+    @Mock
+    private OpenSearchClient client;
+
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        when(openSearchClientSupplier.getClient()).thenReturn(client);
+        when(sessionSummaryService.getIndexName()).thenReturn("sessions");
+        when(sessionSummaryService.isBackfillCompleted()).thenReturn(true);
+        RetentionProperties retention = new RetentionProperties(true, Duration.ofMinutes(10), null, null, 500L, 50_000,
+                List.of(
+                        new RetentionPolicyProperties("errors", Duration.ofDays(30), List.of(),
+                                List.of(ExecutionStatus.COMPLETED_WITH_ERRORS)),
+                        new RetentionPolicyProperties("kept-chain", null, List.of("chain-kept"), List.of()),
+                        new RetentionPolicyProperties("default", Duration.ofDays(1), List.of(), List.of())));
+        retentionService = new RetentionService(sessionService, sessionSummaryService, deleteTaskService,
+                serviceStateService, openSearchClientSupplier,
+                new SessionsProperties(null, null, null, null, null, null, retention),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void sessionsAreQueriedPerPolicyExcludingEarlierPolicies() throws IOException {
+        givenSummaries(
+                List.of(hit("failed-old", Duration.ofDays(40))),
+                List.of(hit("completed", Duration.ofDays(2))));
+
+        assertEquals(List.of("failed-old", "completed"), retentionService.findExpiredSessions(NOW));
+
+        ArgumentCaptor<SearchRequest> requests = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, times(2)).search(requests.capture(), eq(SessionSummaryElastic.class));
+        BoolQuery errorsQuery = requests.getAllValues().get(0).query().bool();
+        assertEquals(2, errorsQuery.filter().size());
+        assertTrue(errorsQuery.mustNot().isEmpty());
+        // the policy without max age keeps its sessions from the later policies
+        BoolQuery defaultQuery = requests.getAllValues().get(1).query().bool();
+        assertEquals(1, defaultQuery.filter().size());
+        assertEquals(2, defaultQuery.mustNot().size());
+    }
+
+    @Test
+    void policyMatchingAllSessionsGovernsThemAll() throws IOException {
+        RetentionProperties retention = new RetentionProperties(true, Duration.ofMinutes(10), null, null, 500L, 50_000,
+                List.of(
+                        new RetentionPolicyProperties("keep-all", null, List.of(), List.of()),
+                        new RetentionPolicyProperties("default", Duration.ofDays(1), List.of(), List.of())));
+        retentionService = new RetentionService(sessionService, sessionSummaryService, deleteTaskService,
+                serviceStateService, openSearchClientSupplier,
+                new SessionsProperties(null, null, null, null, null, null, retention),
+                new SimpleMeterRegistry());
+
+        assertTrue(retentionService.findExpiredSessions(NOW).isEmpty());
+        verify(client, never()).search(any(SearchRequest.class), eq(SessionSummaryElastic.class));
+    }
+
+    @Test
+    void replicaWithoutLockDoesNotPurge() throws IOException {
+        when(serviceStateService.tryLock(eq("retention"), any(Duration.class))).thenReturn(false);
+        givenSummaries(List.of(hit("completed", Duration.ofDays(2))));
+
+        retentionService.purge();
+
+        verify(client, never()).search(any(SearchRequest.class), eq(SessionSummaryElastic.class));
+        verify(sessionService, never()).deleteByQueriesAsync(anyList(), any(), any());
+    }
+
+    /**
+     * Responses to the searches of the policies with max age, in the order of policies.
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private void givenSummaries(List<Hit<SessionSummaryElastic>>... policyHits) throws IOException {
+        List<SearchResponse<SessionSummaryElastic>> responses = new ArrayList<>();
+        for (List<Hit<SessionSummaryElastic>> hits : policyHits) {
+            SearchResponse<SessionSummaryElastic> response = mock(SearchResponse.class);
+            when(response.hits()).thenReturn(HitsMetadata.of(metadata -> metadata.hits(hits)));
+            responses.add(response);
+        }
+        doReturn(responses.get(0), responses.subList(1, responses.size()).toArray())
+                .when(client).search(any(SearchRequest.class), eq(SessionSummaryElastic.class));
+    }
+
+    private static Hit<SessionSummaryElastic> hit(String sessionId, Duration age) {
+        SessionSummaryElastic summary = SessionSummaryElastic.builder()
+                .sessionId(sessionId)
+                .build();
+        return Hit.of(hit -> hit
+                .index("sessions")
+                .id(sessionId)
+                .source(summary)
+                .sort(List.of(String.valueOf(NOW.minus(age).toEpochMilli()), sessionId)));
+    }
+}
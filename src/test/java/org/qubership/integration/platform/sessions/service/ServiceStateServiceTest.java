@@ -0,0 +1,147 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.ErrorResponse;
+import org.opensearch.client.opensearch._types.OpType;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch.core.GetRequest;
+import org.opensearch.client.opensearch.core.GetResponse;
+import org.opensearch.client.opensearch.core.IndexRequest;
+import org.opensearch.client.opensearch.indices.ExistsRequest;
+import org.opensearch.client.opensearch.indices.OpenSearchIndicesClient;
+import org.opensearch.client.transport.endpoints.BooleanResponse;
+import org.qubership.integration.platform.sessions.dto.opensearch.ServiceStateElastic;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.ElementsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.IndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.SessionsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.StateIndexProperties;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ServiceStateServiceTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    @Mock
+    private OpenSearchClientSupplier openSearchClientSupplier;
+    @Mock
+    private OpenSearchClient client;
+    @Mock
+    private OpenSearchIndicesClient indicesClient;
+
+    private ServiceStateService serviceStateService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(openSearchClientSupplier.getClient()).thenReturn(client);
+        when(openSearchClientSupplier.normalize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(client.indices()).thenReturn(indicesClient);
+        when(indicesClient.exists(any(ExistsRequest.class))).thenReturn(new BooleanResponse(true));
+        serviceStateService = new ServiceStateService(openSearchClientSupplier, new OpenSearchProperties(null, null,
+                new IndexProperties(null, new ElementsIndexProperties("elements", true),
+                        new SessionsIndexProperties("sessions"), new StateIndexProperties("state"))));
+    }
+
+    @Test
+    void freeLockIsCreated() throws IOException {
+        givenLock(null);
+
+        assertTrue(serviceStateService.tryLock("job", TTL));
+
+        IndexRequest<ServiceStateElastic> request = captureIndexRequest();
+        assertEquals(OpType.Create, request.opType());
+        assertEquals("lock-job", request.id());
+    }
+
+    @Test
+    void lockHeldByAnotherInstanceIsNotTaken() throws IOException {
+        givenLock(ServiceStateElastic.builder()
+                .owner("another-instance")
+                .lockedUntil(System.currentTimeMillis() + TTL.toMillis())
+                .build());
+
+        assertFalse(serviceStateService.tryLock("job", TTL));
+
+        verify(client, never()).index(any(IndexRequest.class));
+    }
+
+    @Test
+    void expiredLockIsTakenOverWithSequenceNumberCheck() throws IOException {
+        givenLock(ServiceStateElastic.builder()
+                .owner("another-instance")
+                .lockedUntil(System.currentTimeMillis() - 1)
+                .build());
+
+        assertTrue(serviceStateService.tryLock("job", TTL));
+
+        IndexRequest<ServiceStateElastic> request = captureIndexRequest();
+        assertEquals(7L, request.ifSeqNo());
+        assertEquals(2L, request.ifPrimaryTerm());
+    }
+
+    @Test
+    void lockLostOnConflictingWrite() throws IOException {
+        givenLock(null);
+        when(client.index(any(IndexRequest.class))).thenThrow(new OpenSearchException(ErrorResponse.of(response -> response
+                .status(409)
+                .error(cause -> cause.type("version_conflict_engine_exception").reason("document already exists")))));
+
+        assertFalse(serviceStateService.tryLock("job", TTL));
+    }
+
+    private void givenLock(ServiceStateElastic lock) throws IOException {
+        GetResponse.Builder<ServiceStateElastic> response = new GetResponse.Builder<ServiceStateElastic>()
+                .index("state")
+                .id("lock-job")
+                .found(lock != null);
+        if (lock != null) {
+            response.source(lock).seqNo(7L).primaryTerm(2L);
+        }
+        when(client.get(any(GetRequest.class), eq(ServiceStateElastic.class))).thenReturn(response.build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private IndexRequest<ServiceStateElastic> captureIndexRequest() throws IOException {
+        ArgumentCaptor<IndexRequest<ServiceStateElastic>> captor = ArgumentCaptor.forClass(IndexRequest.class);
+        verify(client).index(captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.qubership.integration.platform.sessions.dto.ExecutionStatus;
+import org.qubership.integration.platform.sessions.dto.Session;
+import org.qubership.integration.platform.sessions.dto.SessionElement;
+import org.qubership.integration.platform.sessions.properties.sessions.CacheProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SessionCacheTest {
+    private static final SessionCache.Key KEY = new SessionCache.Key("session-1", false, true);
+
+    private SessionCache sessionCache;
+
+    @BeforeEach
+    void setUp() {
+        sessionCache = new SessionCache(new ObjectMapper(),
+                new SessionsProperties(null, null, new CacheProperties(1, Duration.ofMinutes(1)), null, null, null, null),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void everyReadGetsItsOwnCopy() {
+        Session session = finishedSession("chain-1");
+        sessionCache.putIfFinished(KEY, session);
+
+        Session first = sessionCache.get(KEY);
+        first.setChainName("renamed");
+        first.getSessionElements().get(0).setBodyAfter("changed");
+        Session second = sessionCache.get(KEY);
+
+        assertNotSame(session, first);
+        assertNotSame(first, second);
+        assertEquals("chain", second.getChainName());
+        assertEquals("body", second.getSessionElements().get(0).getBodyAfter());
+    }
+
+    @Test
+    void sessionInProgressIsNotCached() {
+        Session session = finishedSession("chain-1");
+        session.setExecutionStatus(ExecutionStatus.IN_PROGRESS);
+        sessionCache.putIfFinished(KEY, session);
+
+        assertNull(sessionCache.get(KEY));
+    }
+
+    @Test
+    void sessionsAreInvalidatedByChain() {
+        SessionCache.Key otherKey = new SessionCache.Key("session-2", false, true);
+        sessionCache.putIfFinished(KEY, finishedSession("chain-1"));
+        sessionCache.putIfFinished(otherKey, finishedSession("chain-2"));
+
+        sessionCache.invalidateByChainId("chain-1");
+
+        assertNull(sessionCache.get(KEY));
+        assertNotNull(sessionCache.get(otherKey));
+    }
+
+    private static Session finishedSession(String chainId) {
+        return Session.builder()
+                .id("session-1")
+                .chainId(chainId)
+                .chainName("chain")
+                .started("2024-01-01T00:00:00.000")
+                .finished("2024-01-01T00:00:01.000")
+                .executionStatus(ExecutionStatus.COMPLETED_NORMALLY)
+                .sessionElements(List.of(SessionElement.builder()
+                        .elementId("element-1")
+                        .bodyAfter("body")
+                        .build()))
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch._types.query_dsl.TermQuery;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.opensearch.DefaultOpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.ElementsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.IndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.SessionProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.SessionsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.StateIndexProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.FacetsProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.date;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.keyword;
+import static org.qubership.integration.platform.sessions.opensearch.SessionIndexMappings.searchableText;
+
+/**
+ * Measures the cost of a page of session elements read by {@link SessionService#scanSessionElements}
+ * as sessions grow, it is expected to stay flat. Runs against a disposable cluster only, e.g.
+ * {@code mvn test -Dtest=SessionPagingBenchmarkTest -Dbenchmark.opensearch.url=http://localhost:9200},
+ * results are logged.
+ */
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.opensearch.url", matches = ".+")
+class SessionPagingBenchmarkTest {
+    private static final String INDEX_NAME = "sessions-paging-benchmark";
+    private static final int[] SESSION_SIZES = {1_000, 10_000, 50_000};
+    private static final int BULK_SIZE = 1_000;
+    private static final int ROUNDS = 3;
+    private static final String PAYLOAD = "x".repeat(1024);
+
+    private OpenSearchClient client;
+    private SessionService sessionService;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        client = new OpenSearchClient(ApacheHttpClient5TransportBuilder
+                .builder(HttpHost.create(System.getProperty("benchmark.opensearch.url")))
+                .build());
+        client.indices().create(request -> request
+                .index(INDEX_NAME)
+                .mappings(mappings -> mappings
+                        .properties("id", keyword())
+                        .properties("sessionId", keyword())
+                        .properties("started", date())
+                        .properties("bodyBefore", searchableText())));
+        sessionService = new SessionService(null,
+                new DefaultOpenSearchClientSupplier(client, null),
+                new ObjectMapper(),
+                null,
+                new OpenSearchProperties(null,
+                        new SessionProperties(104_857_600, "1m"),
+                        new IndexProperties(null,
+                                new ElementsIndexProperties(INDEX_NAME, false),
+                                new SessionsIndexProperties("sessions"),
+                                new StateIndexProperties("state"))),
+                mock(SessionSummaryService.class),
+                mock(SessionCache.class),
+                new SessionsProperties(null, null, null, new FacetsProperties(Duration.ofSeconds(30), 100), null, null, null),
+                mock(SessionQueryCache.class),
+                mock(DeleteTaskService.class),
+                mock(ElementsIndexManager.class));
+    }
+
+    @AfterAll
+    void tearDown() throws Exception {
+        if (client != null) {
+            client.indices().delete(request -> request.index(INDEX_NAME).ignoreUnavailable(true));
+        }
+    }
+
+    @Test
+    void pageCostStaysFlatAsSessionsGrow() throws Exception {
+        for (int size : SESSION_SIZES) {
+            String sessionId = "session-" + size;
+            indexSession(sessionId, size);
+            Query query = new TermQuery.Builder().field("sessionId").value(FieldValue.of(sessionId)).build().toQuery();
+            for (int round = 0; round < ROUNDS; round++) {
+                List<Long> pageNanos = new ArrayList<>();
+                long[] pageStarted = {System.nanoTime()};
+                sessionService.scanSessionElements(query, false, page -> {
+                    long now = System.nanoTime();
+                    pageNanos.add(now - pageStarted[0]);
+                    pageStarted[0] = now;
+                });
+                int tail = Math.max(1, pageNanos.size() / 10);
+                log.info("Session of {} elements, round {}: {} pages, first {} pages {} ms, last {} pages {} ms per page",
+                        size, round + 1, pageNanos.size(),
+                        tail, meanMillis(pageNanos.subList(0, tail)),
+                        tail, meanMillis(pageNanos.subList(pageNanos.size() - tail, pageNanos.size())));
+            }
+        }
+    }
+
+    private void indexSession(String sessionId, int size) throws Exception {
+        Instant started = Instant.parse("2025-01-01T00:00:00Z");
+        for (int from = 0; from < size; from += BULK_SIZE) {
+            List<BulkOperation> operations = new ArrayList<>();
+            for (int i = from; i < Math.min(from + BULK_SIZE, size); i++) {
+                SessionElementElastic element = SessionElementElastic.builder()
+                        .id(sessionId + "-" + i)
+                        .sessionId(sessionId)
+                        .started(started.plusMillis(i).toString())
+                        .bodyBefore(PAYLOAD)
+                        .build();
+                operations.add(BulkOperation.of(operation -> operation.index(index -> index
+                        .index(INDEX_NAME)
+                        .id(element.getId())
+                        .document(element))));
+            }
+            client.bulk(request -> request.operations(operations));
+        }
+        client.indices().refresh(request -> request.index(INDEX_NAME));
+    }
+
+    private static double meanMillis(List<Long> nanos) {
+        return nanos.stream().mapToLong(Long::longValue).average().orElse(0) / 1_000_000;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024-2025 NetCracker Technology Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.qubership.integration.platform.sessions.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.aggregations.Aggregate;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.indices.ExistsRequest;
+import org.opensearch.client.opensearch.indices.GetMappingRequest;
+import org.opensearch.client.opensearch.indices.GetMappingResponse;
+import org.opensearch.client.opensearch.indices.OpenSearchIndicesClient;
+import org.opensearch.client.transport.endpoints.BooleanResponse;
+import org.qubership.integration.platform.sessions.dto.opensearch.ServiceStateElastic;
+import org.qubership.integration.platform.sessions.dto.opensearch.SessionElementElastic;
+import org.qubership.integration.platform.sessions.mapper.SessionSummaryMapper;
+import org.qubership.integration.platform.sessions.opensearch.OpenSearchClientSupplier;
+import org.qubership.integration.platform.sessions.properties.opensearch.ElementsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.IndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.OpenSearchProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.SessionsIndexProperties;
+import org.qubership.integration.platform.sessions.properties.opensearch.StateIndexProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SessionsProperties;
+import org.qubership.integration.platform.sessions.properties.sessions.SummaryProperties;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SessionSummaryServiceTest {
+    private static final String RECONCILE_STATE = "summary-reconcile";
+
+    @Mock
+    private OpenSearchClientSupplier openSearchClientSupplier;
+    @Mock
+    private OpenSearchClient client;
+    @Mock
+    private OpenSearchIndicesClient indicesClient;
+    @Mock
+    private SessionSummaryMapper summaryMapper;
+    @Mock
+    private ServiceStateService serviceStateService;
+
+    private SessionSummaryService sessionSummaryService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(openSearchClientSupplier.getClient()).thenReturn(client);
+        when(openSearchClientSupplier.normalize(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(client.indices()).thenReturn(indicesClient);
+        when(indicesClient.exists(any(ExistsRequest.class))).thenReturn(new BooleanResponse(true));
+        when(indicesClient.getMapping(any(GetMappingRequest.class))).thenReturn(GetMappingResponse.of(response -> response
+                .result("sessions", mapping -> mapping.mappings(properties -> properties))));
+        sessionSummaryService = new SessionSummaryService(openSearchClientSupplier,
+                new OpenSearchProperties(null, null, new IndexProperties(null,
+                        new ElementsIndexProperties("elements", true),
+                        new SessionsIndexProperties("sessions"),
+                        new StateIndexProperties("state"))),
+                new SessionsProperties(null,
+                        new SummaryProperties(Duration.ofSeconds(10), Duration.ofMinutes(5), Duration.ofMinutes(1), 500),
+                        null, null, null, null, null),
+                summaryMapper,
+                serviceStateService);
+    }
+
+    @Test
+    void replicaWithoutLockDoesNotReconcile() throws IOException {
+        when(serviceStateService.tryLock(eq(RECONCILE_STATE), any(Duration.class))).thenReturn(false);
+        when(serviceStateService.getState(RECONCILE_STATE)).thenReturn(Optional.empty());
+
+        sessionSummaryService.reconcile();
+
+        verify(client, never()).search(any(SearchRequest.class), eq(SessionElementElastic.class));
+        verify(serviceStateService, never()).putState(anyString(), any(ServiceStateElastic.class));
+        assertFalse(sessionSummaryService.isBackfillCompleted());
+    }
+
+    @Test
+    void replicaWithoutLockPicksUpBackfillCompletedElsewhere() {
+        when(serviceStateService.tryLock(eq(RECONCILE_STATE), any(Duration.class))).thenReturn(false);
+        when(serviceStateService.getState(RECONCILE_STATE))
+                .thenReturn(Optional.of(ServiceStateElastic.builder().checkpoint(1L).completed(true).build()));
+
+        sessionSummaryService.reconcile();
+
+        assertTrue(sessionSummaryService.isBackfillCompleted());
+    }
+
+    @Test
+    void firstReconcileBackfillsAllSessionsAndPersistsCheckpoint() throws IOException {
+        when(serviceStateService.tryLock(eq(RECONCILE_STATE), any(Duration.class))).thenReturn(true);
+        when(serviceStateService.getState(RECONCILE_STATE)).thenReturn(Optional.empty());
+        givenNoElements();
+
+        sessionSummaryService.reconcile();
+
+        ArgumentCaptor<ServiceStateElastic> state = ArgumentCaptor.forClass(ServiceStateElastic.class);
+        verify(serviceStateService, atLeastOnce()).putState(eq(RECONCILE_STATE), state.capture());
+        assertEquals(Boolean.TRUE, state.getValue().getCompleted());
+        assertNotNull(state.getValue().getCheckpoint());
+        assertTrue(sessionSummaryService.isBackfillCompleted());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenNoElements() throws IOException {
+        SearchResponse<SessionElementElastic> response = mock(SearchResponse.class);
+        when(response.aggregations()).thenReturn(Map.of("affected_sessions",
+                Aggregate.of(aggregate -> aggregate.composite(composite -> composite
+                        .buckets(buckets -> buckets.array(List.of()))))));
+        doReturn(response).when(client).search(any(SearchRequest.class), eq(SessionElementElastic.class));
+    }
+}